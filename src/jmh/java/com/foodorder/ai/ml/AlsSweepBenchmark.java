@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.ml;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full ALS sweep (all users, then all items) including factor
+ * initialisation, on all available cores unless {@code threads} is set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AlsSweepBenchmark {
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"1000", "10000"})
+    public int items;
+
+    @Param({"10", "32", "64"})
+    public int factors;
+
+    @Param({"0.001"})
+    public double density;
+
+    @Param({"explicit", "implicit"})
+    public String mode;
+
+    @Param({"0"})
+    public int threads;
+
+    private SparseRatingMatrix ratings;
+    private AlsTrainer trainer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ratings = BenchmarkData.ratings(users, items, density, 42L);
+
+        AlsConfig config = new AlsConfig();
+        config.setImplicitFeedback("implicit".equals(mode));
+        config.setNumFactors(factors);
+        config.setIterations(1);
+        config.setThreads(threads);
+        trainer = config.isImplicitFeedback() ? new ImplicitAlsTrainer(config) : new AlsTrainer(config);
+    }
+
+    @Benchmark
+    public FactorModel sweep() {
+        return trainer.train(ratings);
+    }
+}
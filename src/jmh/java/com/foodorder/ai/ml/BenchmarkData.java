@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.ml;
+
+import com.foodorder.ai.model.UserItemInteraction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random inputs shared by the benchmarks. Every generator is seeded so runs
+ * are comparable.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static List<UserItemInteraction> interactions(int users, int items, double density, long seed) {
+        Random random = new Random(seed);
+        long count = Math.max(1L, (long) (users * (double) items * density));
+        List<UserItemInteraction> interactions = new ArrayList<>((int) count);
+        for (long n = 0; n < count; n++) {
+            UserItemInteraction interaction = new UserItemInteraction();
+            interaction.setId(n + 1);
+            interaction.setUserId("user" + random.nextInt(users));
+            interaction.setFoodItemId((long) random.nextInt(items));
+            interaction.setInteractionType(UserItemInteraction.InteractionType.ORDER);
+            interaction.setQuantity(1 + random.nextInt(3));
+            interaction.setRating(interaction.getQuantity() * 1.0);
+            interactions.add(interaction);
+        }
+        return interactions;
+    }
+
+    static SparseRatingMatrix ratings(int users, int items, double density, long seed) {
+        Random random = new Random(seed);
+        int count = (int) Math.max(1L, (long) (users * (double) items * density));
+        int[] rows = new int[count];
+        int[] cols = new int[count];
+        float[] values = new float[count];
+        for (int n = 0; n < count; n++) {
+            rows[n] = random.nextInt(users);
+            cols[n] = random.nextInt(items);
+            values[n] = 1 + random.nextInt(5);
+        }
+        return SparseRatingMatrix.fromTriplets(users, items, rows, cols, values, count);
+    }
+
+    static FactorModel factors(int users, int items, int numFactors, long seed) {
+        Random random = new Random(seed);
+        float[] userFactors = new float[users * numFactors];
+        float[] itemFactors = new float[items * numFactors];
+        for (int p = 0; p < userFactors.length; p++) {
+            userFactors[p] = (float) random.nextGaussian();
+        }
+        for (int p = 0; p < itemFactors.length; p++) {
+            itemFactors[p] = (float) random.nextGaussian();
+        }
+        return new FactorModel(users, items, numFactors, userFactors, itemFactors);
+    }
+}
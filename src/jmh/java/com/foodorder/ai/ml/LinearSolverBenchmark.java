@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.ml;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single k x k normal-equation solve, the inner step of every ALS row
+ * update. The system is copied before each solve because solvers may work
+ * in place; the O(k^2) copy is small next to the solve.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class LinearSolverBenchmark {
+
+    @Param({"10", "32", "64", "128"})
+    public int factors;
+
+    @Param({"CHOLESKY", "CONJUGATE_GRADIENT"})
+    public LinearSolver.Type solverType;
+
+    @Param({"3"})
+    public int cgIterations;
+
+    private LinearSolver solver;
+    private double[] matrix;
+    private double[] rhs;
+    private double[] a;
+    private double[] b;
+    private double[] x;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        int rows = factors * 4;
+        double[] y = new double[rows * factors];
+        for (int p = 0; p < y.length; p++) {
+            y[p] = random.nextGaussian();
+        }
+
+        // Y^T Y + lambda I is symmetric positive definite, like the real systems
+        matrix = new double[factors * factors];
+        for (int r = 0; r < rows; r++) {
+            for (int k = 0; k < factors; k++) {
+                for (int l = 0; l < factors; l++) {
+                    matrix[k * factors + l] += y[r * factors + k] * y[r * factors + l];
+                }
+            }
+        }
+        for (int k = 0; k < factors; k++) {
+            matrix[k * factors + k] += 0.01;
+        }
+        rhs = new double[factors];
+        for (int k = 0; k < factors; k++) {
+            rhs[k] = random.nextGaussian();
+        }
+
+        solver = solverType.create(factors, cgIterations);
+        a = new double[matrix.length];
+        b = new double[factors];
+        x = new double[factors];
+    }
+
+    @Benchmark
+    public double[] solve() {
+        System.arraycopy(matrix, 0, a, 0, matrix.length);
+        System.arraycopy(rhs, 0, b, 0, factors);
+        java.util.Arrays.fill(x, 0.0);
+        solver.solve(a, b, x);
+        return x;
+    }
+}
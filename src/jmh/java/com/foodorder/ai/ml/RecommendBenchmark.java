@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.ml;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The model part of {@code MLRecommendationService.recommend}: user lookup,
+ * top-N retrieval and mapping item indices back to ids. The food item
+ * repository lookups that follow are not included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RecommendBenchmark {
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"1000", "10000", "50000"})
+    public int items;
+
+    @Param({"10", "32"})
+    public int factors;
+
+    @Param({"exact", "norm-pruned", "hnsw"})
+    public String retrieval;
+
+    @Param({"5"})
+    public int topN;
+
+    private ModelSnapshot snapshot;
+    private String[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FactorModel model = BenchmarkData.factors(users, items, factors, 42L);
+        userIds = new String[users];
+        for (int u = 0; u < users; u++) {
+            userIds[u] = "user" + u;
+        }
+        long[] itemIds = new long[items];
+        for (int i = 0; i < items; i++) {
+            itemIds[i] = i + 1;
+        }
+
+        ItemRetriever retriever = null;
+        if ("norm-pruned".equals(retrieval)) {
+            retriever = NormSortedIndex.build(model);
+        } else if ("hnsw".equals(retrieval)) {
+            retriever = HnswIndex.build(model, 16, 200, 100, 42L);
+        }
+        snapshot = new ModelSnapshot(new MatrixBuilder(userIds, itemIds), model, null, 0L, retriever);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public long[] recommend(Cursor cursor) {
+        String userId = userIds[cursor.next];
+        cursor.next = (cursor.next + 1) % userIds.length;
+
+        TopKSelector selector = new TopKSelector(topN);
+        snapshot.topItems(userId, selector);
+        int[] top = selector.drainDescending();
+        long[] ids = new long[top.length];
+        for (int p = 0; p < top.length; p++) {
+            ids[p] = snapshot.getItemId(top[p]);
+        }
+        return ids;
+    }
+}
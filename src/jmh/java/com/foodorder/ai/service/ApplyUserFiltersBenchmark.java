@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.dto.UserPreferences;
+import com.foodorder.ai.model.FoodItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget, diet and allergen filtering of a candidate list. Candidates are
+ * generated so that roughly one in {@code 1 / passRate} survives, which
+ * controls how far the stream runs before it has three results. The
+ * candidates are also the whole catalog the index is built over.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ApplyUserFiltersBenchmark {
+
+    private static final String[] ALLERGENS = {"gluten", "dairy", "nuts", "soy", "egg", "shellfish"};
+
+    @Param({"10", "1000", "50000"})
+    public int candidates;
+
+    @Param({"0.5", "0.01"})
+    public double passRate;
+
+    private final FoodRecommendationService service = new FoodRecommendationService();
+    private List<FoodItem> items;
+    private CatalogIndex catalog;
+    private UserPreferences prefs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        items = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            boolean passes = random.nextDouble() < passRate;
+            String[] allergens = passes
+                ? new String[] {"gluten"}
+                : new String[] {ALLERGENS[1 + random.nextInt(ALLERGENS.length - 1)], "gluten"};
+            items.add(new FoodItem((long) i, "Dish " + i, "", 5.0 + random.nextInt(20), 10, "Category " + (i % 20),
+                                   passes || random.nextBoolean(), false, allergens));
+        }
+
+        catalog = new CatalogIndex(items, 0L);
+
+        prefs = new UserPreferences();
+        prefs.setBudgetMax(30.0);
+        prefs.setDietaryPreference("vegetarian");
+        prefs.setAllergens(Arrays.asList("dairy", "nuts", "soy", "egg", "shellfish"));
+    }
+
+    @Benchmark
+    public List<FoodItem> applyUserFilters() {
+        return service.applyUserFilters(catalog, items, prefs);
+    }
+}
@@ -73,6 +73,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .authorizeRequests()
                 .antMatchers("/api/auth/**", "/h2-console/**").permitAll()
                 .antMatchers("/api/admin/**").hasRole("ADMIN")
+                .antMatchers("/api/recommendations/batch").hasRole("ADMIN")
                 .anyRequest().authenticated()
             .and()
             .sessionManagement()
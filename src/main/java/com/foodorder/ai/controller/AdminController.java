@@ -24,8 +24,13 @@
 
 package com.foodorder.ai.controller;
 
+import com.foodorder.ai.ml.EvaluationReport;
+import com.foodorder.ai.ml.TrainingProgress;
+import com.foodorder.ai.service.EvaluationService;
+import com.foodorder.ai.service.MLRecommendationService;
 import com.foodorder.ai.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -42,6 +47,12 @@ public class AdminController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private MLRecommendationService mlRecommendationService;
+    
+    @Autowired
+    private EvaluationService evaluationService;
+    
     @GetMapping("/analytics/today")
     public ResponseEntity<Map<String, Object>> getTodayAnalytics() {
         Map<String, Object> analytics = orderService.getTodayAnalytics();
@@ -65,4 +76,33 @@ public class AdminController {
         Integer totalOrders = orderService.getTotalOrdersToday();
         return ResponseEntity.ok(Map.of("totalOrders", totalOrders));
     }
+    
+    @GetMapping("/ml/training")
+    public ResponseEntity<TrainingProgress> getTrainingProgress() {
+        return ResponseEntity.ok(mlRecommendationService.getTrainingProgress());
+    }
+    
+    @PostMapping("/ml/training")
+    public ResponseEntity<TrainingProgress> startTraining() {
+        HttpStatus status = mlRecommendationService.requestTraining() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(mlRecommendationService.getTrainingProgress());
+    }
+    
+    @DeleteMapping("/ml/training")
+    public ResponseEntity<TrainingProgress> cancelTraining() {
+        HttpStatus status = mlRecommendationService.cancelTraining() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(mlRecommendationService.getTrainingProgress());
+    }
+    
+    @GetMapping("/ml/evaluation")
+    public ResponseEntity<EvaluationReport> getEvaluationReport() {
+        EvaluationReport report = evaluationService.getLatestReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.notFound().build();
+    }
+    
+    @PostMapping("/ml/evaluation")
+    public ResponseEntity<Map<String, Boolean>> startEvaluation() {
+        HttpStatus status = evaluationService.requestEvaluation() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(Map.of("running", evaluationService.isEvaluationInProgress()));
+    }
 }
@@ -24,12 +24,26 @@
 
 package com.foodorder.ai.controller;
 
+import com.foodorder.ai.dto.BatchRecommendationRequest;
 import com.foodorder.ai.dto.RecommendationRequest;
 import com.foodorder.ai.dto.RecommendationResponse;
+import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.model.User;
+import com.foodorder.ai.service.BatchRecommendationService;
 import com.foodorder.ai.service.FoodRecommendationService;
+import com.foodorder.ai.service.TrendingCounters;
+import com.foodorder.ai.service.TrendingService;
+import com.foodorder.ai.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/recommendations")
@@ -38,6 +52,20 @@ public class RecommendationController {
     @Autowired
     private FoodRecommendationService recommendationService;
 
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private BatchRecommendationService batchRecommendationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Value("${ml.batch.timeout-ms:1800000}")
+    private long batchTimeoutMillis;
+
+    private static final String NDJSON = "application/x-ndjson";
+
     @PostMapping
     public ResponseEntity<RecommendationResponse> getRecommendations(
             @RequestBody RecommendationRequest request) {
@@ -48,4 +76,60 @@ public class RecommendationController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * Streams one JSON line per requested user, so the response can cover
+     * every active user without being held in memory. Admin only; runs
+     * asynchronously with its own timeout.
+     */
+    @PostMapping("/batch")
+    public WebAsyncTask<Void> getBatchRecommendations(
+            @RequestBody BatchRecommendationRequest request, HttpServletResponse response) {
+        int topN;
+        List<String> userIds;
+        try {
+            topN = batchRecommendationService.topN(request);
+            userIds = batchRecommendationService.resolveUsers(request);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+
+        response.setContentType(NDJSON);
+        return new WebAsyncTask<>(batchTimeoutMillis, () -> {
+            batchRecommendationService.streamRecommendations(userIds, topN, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<FoodItem>> getTrending(
+            @RequestParam(defaultValue = "last-hour") String window,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String userId,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        // A demographic slice reveals something about the user, so only their own or an admin's
+        if (userId != null && !isSelfOrAdmin(authentication, userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            TrendingCounters.Window trendingWindow = TrendingCounters.Window.fromName(window);
+            return ResponseEntity.ok(trendingService.trending(userId, trendingWindow, category, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private boolean isSelfOrAdmin(Authentication authentication, String userId) {
+        if (authentication == null) {
+            return false;
+        }
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        return admin || userService.getUserByEmail(authentication.getName())
+                .map(User::getUserId)
+                .filter(userId::equals)
+                .isPresent();
+    }
 }
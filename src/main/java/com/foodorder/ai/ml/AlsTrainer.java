@@ -0,0 +1,372 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Alternating least squares over a {@link SparseRatingMatrix}, solved row-parallel on a fork-join pool.
+ * Stops early at a positive tolerance and can warm-start from a previous model.
+ */
+public class AlsTrainer {
+    
+    protected final int numFactors;
+    protected final double regularization;
+    protected final int iterations;
+    protected final double tolerance;
+    protected final int threads;
+    protected final long seed;
+    private final int threadPriority;
+    
+    private final ThreadLocal<Workspace> workspaces;
+    
+    // Rows per partial sum; fixed so the reduction order never depends on the thread count
+    protected static final int REDUCTION_CHUNK_ROWS = 1024;
+    
+    // Growable triplets (12 bytes with slack) plus CSR, CSC and sort scratch
+    private static final long BYTES_PER_RATING = 48L;
+    // Dictionary slots, hash and reference plus the id string itself
+    private static final long BYTES_PER_USER_ID = 100L;
+    // Dictionary slots plus the id
+    private static final long BYTES_PER_ITEM_ID = 24L;
+    
+    private int iterationsRun;
+    private double loss = Double.NaN;
+    private SweepListener sweepListener;
+    
+    public AlsTrainer(AlsConfig config) {
+        this.numFactors = config.getNumFactors();
+        this.regularization = config.getRegularization();
+        this.iterations = config.getIterations();
+        this.tolerance = config.getTolerance();
+        this.threads = config.getThreads() > 0 ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.seed = config.getSeed();
+        this.threadPriority = config.getThreadPriority();
+        this.workspaces = ThreadLocal.withInitial(() ->
+            new Workspace(numFactors, config.getSolver().create(numFactors, config.getCgIterations())));
+    }
+    
+    public FactorModel train(SparseRatingMatrix ratings) {
+        return train(ratings, null, null, null);
+    }
+    
+    /**
+     * Trains starting from a previous model; rows mapped to -1 in the index arrays start random.
+     */
+    public FactorModel train(SparseRatingMatrix ratings, FactorModel previous, int[] previousUser, int[] previousItem) {
+        int numUsers = ratings.nrow();
+        int numItems = ratings.ncol();
+        
+        Random random = new Random(seed);
+        float[] userFactors = randomFactors(numUsers, random);
+        float[] itemFactors = randomFactors(numItems, random);
+        if (previous != null && previous.getNumFactors() == numFactors) {
+            copyRows(previous.getUserFactors(), previousUser, userFactors);
+            copyRows(previous.getItemFactors(), previousItem, itemFactors);
+        }
+        
+        iterationsRun = 0;
+        loss = Double.NaN;
+        ForkJoinPool pool = ParallelRows.newPool(threads, threadPriority);
+        try {
+            for (int iter = 0; iter < iterations; iter++) {
+                prepareHalfSweep(pool, itemFactors, numItems);
+                runChunked(pool, numUsers, (from, to) -> updateUserFactors(ratings, userFactors, itemFactors, from, to));
+                prepareHalfSweep(pool, userFactors, numUsers);
+                runChunked(pool, numItems, (from, to) -> updateItemFactors(ratings, userFactors, itemFactors, from, to));
+                iterationsRun++;
+                
+                boolean converged = false;
+                if (tolerance > 0) {
+                    double previousLoss = loss;
+                    loss = loss(pool, ratings, userFactors, itemFactors);
+                    converged = previousLoss - loss <= tolerance * previousLoss;
+                }
+                if (sweepListener != null && !sweepListener.onSweep(iterationsRun, loss)) {
+                    throw new CancellationException("ALS training cancelled after " + iterationsRun + " sweeps");
+                }
+                if (converged) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        return new FactorModel(numUsers, numItems, numFactors, userFactors, itemFactors);
+    }
+    
+    /**
+     * Called after every sweep; training is abandoned with a
+     * {@link CancellationException} when the listener returns false.
+     */
+    public void setSweepListener(SweepListener sweepListener) {
+        this.sweepListener = sweepListener;
+    }
+    
+    /**
+     * Number of sweeps the last {@link #train} call ran.
+     */
+    public int getIterationsRun() {
+        return iterationsRun;
+    }
+    
+    /**
+     * Training loss after the last sweep, or NaN if loss tracking is off.
+     */
+    public double getLoss() {
+        return loss;
+    }
+    
+    /**
+     * Root mean squared error over the observed ratings.
+     */
+    protected double loss(ForkJoinPool pool, SparseRatingMatrix ratings, float[] userFactors, float[] itemFactors) {
+        int[] rowPtr = ratings.getRowPointers();
+        int[] colIdx = ratings.getColumnIndices();
+        float[] values = ratings.getRowValues();
+        
+        double squaredError = sumChunked(pool, ratings.nrow(), (from, to) -> {
+            double sum = 0.0;
+            for (int u = from; u < to; u++) {
+                int userOffset = u * numFactors;
+                for (int p = rowPtr[u]; p < rowPtr[u + 1]; p++) {
+                    double error = values[p] - dot(userFactors, userOffset, itemFactors, colIdx[p] * numFactors);
+                    sum += error * error;
+                }
+            }
+            return sum;
+        });
+        return Math.sqrt(squaredError / Math.max(1, ratings.nnz()));
+    }
+    
+    /**
+     * Sums {@code body} over fixed-size chunks of {@code [0, rows)} in
+     * parallel and adds the chunk results in order.
+     */
+    protected double sumChunked(ForkJoinPool pool, int rows, RangeSum body) {
+        int numChunks = numReductionChunks(rows);
+        double[] partials = new double[numChunks];
+        
+        runChunked(pool, numChunks, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int start = c * REDUCTION_CHUNK_ROWS;
+                partials[c] = body.sum(start, Math.min(rows, start + REDUCTION_CHUNK_ROWS));
+            }
+        });
+        
+        double sum = 0.0;
+        for (double partial : partials) {
+            sum += partial;
+        }
+        return sum;
+    }
+    
+    protected static int numReductionChunks(int rows) {
+        return rows <= 0 ? 1 : (rows - 1) / REDUCTION_CHUNK_ROWS + 1;
+    }
+    
+    protected double dot(float[] a, int aOffset, float[] b, int bOffset) {
+        double sum = 0.0;
+        for (int k = 0; k < numFactors; k++) {
+            sum += a[aOffset + k] * b[bOffset + k];
+        }
+        return sum;
+    }
+    
+    private void copyRows(float[] source, int[] sourceRows, float[] target) {
+        if (sourceRows == null) {
+            return;
+        }
+        for (int row = 0; row < sourceRows.length; row++) {
+            if (sourceRows[row] >= 0) {
+                System.arraycopy(source, sourceRows[row] * numFactors, target, row * numFactors, numFactors);
+            }
+        }
+    }
+    
+    /**
+     * Prepares this trainer to solve single rows against factors that stay
+     * frozen, e.g. to fold a new user into a trained model.
+     */
+    public void prepareFoldIn(float[] fixed, int fixedRows) {
+        ForkJoinPool pool = ParallelRows.newPool(threads, threadPriority);
+        try {
+            prepareHalfSweep(pool, fixed, fixedRows);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Solves one row against the factors passed to {@link #prepareFoldIn}, as a half-sweep would.
+     */
+    public void foldIn(int[] indices, float[] values, int count, float[] fixed, float[] target) {
+        solveRow(0, count, indices, values, fixed, target, 0);
+    }
+    
+    private float[] randomFactors(int rows, Random random) {
+        float[] factors = new float[rows * numFactors];
+        for (int p = 0; p < factors.length; p++) {
+            factors[p] = random.nextFloat();
+        }
+        return factors;
+    }
+    
+    /**
+     * Called before each half-sweep with the factors that stay fixed during it.
+     */
+    protected void prepareHalfSweep(ForkJoinPool pool, float[] fixed, int fixedRows) {
+    }
+    
+    protected void runChunked(ForkJoinPool pool, int rows, ParallelRows.RowRange body) {
+        ParallelRows.run(pool, threads, rows, body);
+    }
+    
+    private void updateUserFactors(SparseRatingMatrix ratings, float[] userFactors, float[] itemFactors,
+                                   int from, int to) {
+        int[] rowPtr = ratings.getRowPointers();
+        int[] colIdx = ratings.getColumnIndices();
+        float[] values = ratings.getRowValues();
+        
+        for (int u = from; u < to; u++) {
+            try {
+                solveRow(rowPtr[u], rowPtr[u + 1], colIdx, values, itemFactors, userFactors, u);
+            } catch (Exception e) {
+                System.err.println("Error updating user " + u + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private void updateItemFactors(SparseRatingMatrix ratings, float[] userFactors, float[] itemFactors,
+                                   int from, int to) {
+        int[] colPtr = ratings.getColumnPointers();
+        int[] rowIdx = ratings.getRowIndices();
+        float[] values = ratings.getColumnValues();
+        
+        for (int i = from; i < to; i++) {
+            try {
+                solveRow(colPtr[i], colPtr[i + 1], rowIdx, values, userFactors, itemFactors, i);
+            } catch (Exception e) {
+                System.err.println("Error updating item " + i + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    // Solves (Y^T Y + lambda I) x = Y^T r for one row, where Y holds the fixed
+    // factors of the entries at positions [start, end) and x is written to
+    // target[row]. The row's current factors seed x for warm-started solvers.
+    private void solveRow(int start, int end, int[] indices, float[] values,
+                          float[] fixed, float[] target, int row) {
+        Workspace ws = workspaces.get();
+        double[] A = ws.A;
+        double[] b = ws.b;
+        double[] x = ws.x;
+        ws.clear();
+        
+        accumulate(start, end, indices, values, fixed, A, b);
+        
+        for (int k = 0; k < numFactors; k++) {
+            int rowK = k * numFactors;
+            for (int l = 0; l < k; l++) {
+                A[l * numFactors + k] = A[rowK + l];
+            }
+            A[rowK + k] += regularization;
+        }
+        
+        int offset = row * numFactors;
+        for (int k = 0; k < numFactors; k++) {
+            x[k] = target[offset + k];
+        }
+        
+        ws.solver.solve(A, b, x);
+        
+        for (int k = 0; k < numFactors; k++) {
+            target[offset + k] = (float) x[k];
+        }
+    }
+    
+    /**
+     * Adds the observed entries at positions [start, end) to the lower
+     * triangle of {@code A} and to {@code b}.
+     */
+    protected void accumulate(int start, int end, int[] indices, float[] values, float[] fixed,
+                              double[] A, double[] b) {
+        for (int p = start; p < end; p++) {
+            double rating = values[p];
+            int offset = indices[p] * numFactors;
+            
+            for (int k = 0; k < numFactors; k++) {
+                double fk = fixed[offset + k];
+                b[k] += rating * fk;
+                int rowK = k * numFactors;
+                for (int l = 0; l <= k; l++) {
+                    A[rowK + l] += fk * fixed[offset + l];
+                }
+            }
+        }
+    }
+    
+    public interface SweepListener {
+        boolean onSweep(int sweep, double loss);
+    }
+    
+    /**
+     * Heap needed to train on a matrix of the given shape, including dictionaries and solver workspaces.
+     */
+    public static long estimateBytes(long numUsers, long numItems, long numRatings, int numFactors, int threads) {
+        long ratings = numRatings * BYTES_PER_RATING;
+        long mappings = numUsers * BYTES_PER_USER_ID + numItems * BYTES_PER_ITEM_ID;
+        long factors = (numUsers + numItems) * numFactors * 4L;
+        long workspaces = (long) threads * numFactors * (numFactors + 2L) * 8L * 2L;
+        return ratings + mappings + factors + workspaces;
+    }
+    
+    protected interface RangeSum {
+        double sum(int from, int to);
+    }
+    
+    private static class Workspace {
+        final double[] A;
+        final double[] b;
+        final double[] x;
+        final LinearSolver solver;
+        
+        Workspace(int numFactors, LinearSolver solver) {
+            A = new double[numFactors * numFactors];
+            b = new double[numFactors];
+            x = new double[numFactors];
+            this.solver = solver;
+        }
+        
+        void clear() {
+            Arrays.fill(A, 0.0);
+            Arrays.fill(b, 0.0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scores a block of user vectors against every item, tile by tile, into one top-K selector per user.
+ */
+public final class BlockScorer {
+    
+    // 256 items of 64 factors is 64 KB of item rows per tile
+    private static final int ITEM_TILE_FLOATS = 1 << 14;
+    
+    private BlockScorer() {
+    }
+    
+    /**
+     * Offers every item's score for each of the first {@code numQueries} query rows to {@code selectors[q]}.
+     */
+    public static void topItems(FactorModel factors, float[] queries, int numQueries, TopKSelector[] selectors,
+                                ForkJoinPool pool, int parallelism) {
+        int numFactors = factors.getNumFactors();
+        int numItems = factors.getNumItems();
+        float[] items = factors.getItemFactors();
+        int tile = Math.max(1, ITEM_TILE_FLOATS / Math.max(1, numFactors));
+        
+        ParallelRows.run(pool, parallelism, numQueries, (from, to) -> {
+            for (int start = 0; start < numItems; start += tile) {
+                int end = Math.min(numItems, start + tile);
+                int q = from;
+                for (; q + 4 <= to; q += 4) {
+                    scoreFour(queries, q * numFactors, numFactors, items, start, end, selectors, q);
+                }
+                for (; q < to; q++) {
+                    scoreOne(queries, q * numFactors, numFactors, items, start, end, selectors[q]);
+                }
+            }
+        });
+    }
+    
+    private static void scoreFour(float[] queries, int offset, int numFactors, float[] items, int start, int end,
+                                  TopKSelector[] selectors, int q) {
+        int q1 = offset + numFactors;
+        int q2 = q1 + numFactors;
+        int q3 = q2 + numFactors;
+        for (int i = start; i < end; i++) {
+            int row = i * numFactors;
+            double s0 = 0.0;
+            double s1 = 0.0;
+            double s2 = 0.0;
+            double s3 = 0.0;
+            for (int k = 0; k < numFactors; k++) {
+                float item = items[row + k];
+                s0 += queries[offset + k] * item;
+                s1 += queries[q1 + k] * item;
+                s2 += queries[q2 + k] * item;
+                s3 += queries[q3 + k] * item;
+            }
+            selectors[q].offer(i, s0);
+            selectors[q + 1].offer(i, s1);
+            selectors[q + 2].offer(i, s2);
+            selectors[q + 3].offer(i, s3);
+        }
+    }
+    
+    private static void scoreOne(float[] queries, int offset, int numFactors, float[] items, int start, int end,
+                                 TopKSelector selector) {
+        for (int i = start; i < end; i++) {
+            int row = i * numFactors;
+            double sum = 0.0;
+            for (int k = 0; k < numFactors; k++) {
+                sum += queries[offset + k] * items[row + k];
+            }
+            selector.offer(i, sum);
+        }
+    }
+}
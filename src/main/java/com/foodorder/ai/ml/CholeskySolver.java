@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+/**
+ * Direct solver: in-place Cholesky factorisation, then forward and back substitution.
+ */
+public class CholeskySolver implements LinearSolver {
+    
+    private final int n;
+    
+    public CholeskySolver(int n) {
+        this.n = n;
+    }
+    
+    @Override
+    public void solve(double[] a, double[] b, double[] x) {
+        for (int j = 0; j < n; j++) {
+            int rowJ = j * n;
+            double diag = a[rowJ + j];
+            for (int k = 0; k < j; k++) {
+                diag -= a[rowJ + k] * a[rowJ + k];
+            }
+            if (diag <= 0.0) {
+                throw new ArithmeticException("Matrix is not positive definite at column " + j);
+            }
+            double ljj = Math.sqrt(diag);
+            a[rowJ + j] = ljj;
+            
+            for (int i = j + 1; i < n; i++) {
+                int rowI = i * n;
+                double sum = a[rowI + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[rowI + k] * a[rowJ + k];
+                }
+                a[rowI + j] = sum / ljj;
+            }
+        }
+        
+        // L y = b, with y stored in b
+        for (int i = 0; i < n; i++) {
+            int rowI = i * n;
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= a[rowI + k] * b[k];
+            }
+            b[i] = sum / a[rowI + i];
+        }
+        
+        // L^T x = y
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = b[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= a[k * n + i] * x[k];
+            }
+            x[i] = sum / a[i * n + i];
+        }
+    }
+}
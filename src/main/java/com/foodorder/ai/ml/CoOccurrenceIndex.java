@@ -0,0 +1,397 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Item-to-item cosine or Jaccard similarity over users who ordered both items, updated as orders arrive.
+ * A user counts an item or pair at most once per counting session, so similarities stay within [0, 1].
+ */
+public class CoOccurrenceIndex {
+    
+    public enum Similarity {
+        COSINE, JACCARD;
+        
+        public static Similarity fromName(String name) {
+            return "jaccard".equalsIgnoreCase(name.trim()) ? JACCARD : COSINE;
+        }
+    }
+    
+    private static final int INITIAL_ITEMS = 1024;
+    
+    private final int maxNeighbours;
+    private final int maxHistory;
+    private final int maxOrderedItems;
+    private final Similarity similarity;
+    
+    // Guarded by this
+    private final LongIdDictionary itemIndex = new LongIdDictionary(INITIAL_ITEMS);
+    private int[] userCounts = new int[INITIAL_ITEMS];
+    private PairCounts[] pairCounts = new PairCounts[INITIAL_ITEMS];
+    private final Map<String, UserHistory> histories;
+    private long pairs;
+    
+    // Published lists; null means the item's counts changed since its list was built
+    private volatile AtomicReferenceArray<Neighbours> neighbours = new AtomicReferenceArray<>(INITIAL_ITEMS);
+    
+    public CoOccurrenceIndex(int maxNeighbours, int maxHistory, int maxUsers, int maxOrderedItems,
+                             Similarity similarity) {
+        if (maxNeighbours <= 0 || maxHistory <= 0 || maxUsers <= 0 || maxOrderedItems <= 0) {
+            throw new IllegalArgumentException("Neighbour list size, history length and user limits must be positive");
+        }
+        this.maxNeighbours = maxNeighbours;
+        this.maxHistory = maxHistory;
+        this.maxOrderedItems = maxOrderedItems;
+        this.similarity = similarity;
+        // Access order, so the least recently active user is dropped first
+        this.histories = new LinkedHashMap<String, UserHistory>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserHistory> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+    
+    /**
+     * Records that the user ordered the item; a repeat order only brings it back into the recent history.
+     */
+    public synchronized void addOrder(String userId, long itemId) {
+        int item = index(itemId);
+        UserHistory history = histories.computeIfAbsent(userId, id -> new UserHistory(maxHistory));
+        if (history.contains(item)) {
+            return;
+        }
+        if (history.ordered.size >= maxOrderedItems) {
+            history.restartCounting();
+        }
+        if (!history.ordered.add(item)) {
+            history.add(item);
+            return;
+        }
+        
+        userCounts[item]++;
+        for (int q = 0; q < history.counted; q++) {
+            int other = history.recent(q);
+            pairCounts[item].increment(other);
+            pairCounts[other].increment(item);
+            neighbours.set(other, null);
+            pairs++;
+        }
+        neighbours.set(item, null);
+        history.add(item);
+    }
+    
+    /**
+     * Fills the selector with items by summed similarity to the user's recent items, excluding those items.
+     * Returns false if the user has no orders.
+     */
+    public boolean topItems(String userId, TopKSelector selector) {
+        int[] recent;
+        synchronized (this) {
+            UserHistory history = histories.get(userId);
+            if (history == null || history.size == 0) {
+                return false;
+            }
+            recent = Arrays.copyOf(history.items, history.size);
+        }
+        
+        Neighbours[] lists = new Neighbours[recent.length];
+        int total = 0;
+        for (int r = 0; r < recent.length; r++) {
+            lists[r] = neighbours(recent[r]);
+            total += lists[r].items.length;
+        }
+        // Item in the high half and entry in the low half, so sorting groups each item's scores
+        long[] entries = new long[total];
+        float[] scores = new float[total];
+        int e = 0;
+        for (Neighbours list : lists) {
+            for (int p = 0; p < list.items.length; p++, e++) {
+                entries[e] = (long) list.items[p] << 32 | e;
+                scores[e] = list.scores[p];
+            }
+        }
+        Arrays.sort(entries);
+        Arrays.sort(recent);
+        for (int start = 0, end; start < total; start = end) {
+            int item = (int) (entries[start] >>> 32);
+            double score = 0.0;
+            for (end = start; end < total && (int) (entries[end] >>> 32) == item; end++) {
+                score += scores[(int) entries[end]];
+            }
+            if (Arrays.binarySearch(recent, item) < 0) {
+                selector.offer(item, score);
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * The item's neighbours, most similar first, as item ids; empty if the
+     * item is unknown.
+     */
+    public long[] neighbourIds(long itemId) {
+        int item;
+        synchronized (this) {
+            item = itemIndex.indexOf(itemId);
+        }
+        if (item < 0) {
+            return new long[0];
+        }
+        Neighbours list = neighbours(item);
+        long[] ids = new long[list.items.length];
+        for (int p = 0; p < ids.length; p++) {
+            ids[p] = getItemId(list.items[p]);
+        }
+        return ids;
+    }
+    
+    public synchronized long getItemId(int item) {
+        return itemIndex.idAt(item);
+    }
+    
+    public synchronized int getNumItems() {
+        return itemIndex.size();
+    }
+    
+    public synchronized int getNumUsers() {
+        return histories.size();
+    }
+    
+    /**
+     * Number of co-occurrence increments recorded so far.
+     */
+    public synchronized long getNumPairs() {
+        return pairs;
+    }
+    
+    private Neighbours neighbours(int item) {
+        AtomicReferenceArray<Neighbours> published = neighbours;
+        Neighbours list = item < published.length() ? published.get(item) : null;
+        if (list != null) {
+            return list;
+        }
+        synchronized (this) {
+            list = neighbours.get(item);
+            if (list == null) {
+                list = buildNeighbours(item);
+                neighbours.set(item, list);
+            }
+            return list;
+        }
+    }
+    
+    // Caller holds the lock
+    private Neighbours buildNeighbours(int item) {
+        TopKSelector selector = new TopKSelector(maxNeighbours);
+        PairCounts counts = pairCounts[item];
+        for (int slot = 0; slot < counts.keys.length; slot++) {
+            int other = counts.keys[slot];
+            if (other >= 0) {
+                selector.offer(other, similarity(counts.values[slot], userCounts[item], userCounts[other]));
+            }
+        }
+        double[] scores = new double[selector.size()];
+        int[] items = selector.drainDescending(scores);
+        float[] listScores = new float[items.length];
+        for (int p = 0; p < items.length; p++) {
+            listScores[p] = (float) scores[p];
+        }
+        return new Neighbours(items, listScores);
+    }
+    
+    private double similarity(int both, int first, int second) {
+        if (similarity == Similarity.JACCARD) {
+            return (double) both / (first + second - both);
+        }
+        return both / Math.sqrt((double) first * second);
+    }
+    
+    // Caller holds the lock
+    private int index(long itemId) {
+        int existing = itemIndex.indexOf(itemId);
+        if (existing >= 0) {
+            return existing;
+        }
+        int item = itemIndex.add(itemId);
+        if (item == userCounts.length) {
+            int capacity = item + (item >> 1);
+            userCounts = Arrays.copyOf(userCounts, capacity);
+            pairCounts = Arrays.copyOf(pairCounts, capacity);
+            AtomicReferenceArray<Neighbours> grown = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < item; i++) {
+                grown.set(i, neighbours.get(i));
+            }
+            neighbours = grown;
+        }
+        pairCounts[item] = new PairCounts();
+        return item;
+    }
+    
+    private static class Neighbours {
+        private final int[] items;
+        private final float[] scores;
+        
+        Neighbours(int[] items, float[] scores) {
+            this.items = items;
+            this.scores = scores;
+        }
+    }
+    
+    // The user's most recent distinct items, oldest evicted first, and every item counted in this session;
+    // only the newest counted recent items were added in this session and may be paired
+    private static class UserHistory {
+        private final int[] items;
+        private int size;
+        private int next;
+        private int counted;
+        private ItemSet ordered = new ItemSet();
+        
+        UserHistory(int capacity) {
+            this.items = new int[capacity];
+        }
+        
+        boolean contains(int item) {
+            for (int p = 0; p < size; p++) {
+                if (items[p] == item) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        void add(int item) {
+            items[next] = item;
+            next = (next + 1) % items.length;
+            size = Math.min(size + 1, items.length);
+            counted = Math.min(counted + 1, items.length);
+        }
+        
+        // The q-th most recent item
+        int recent(int q) {
+            return items[(next - 1 - q + items.length) % items.length];
+        }
+        
+        void restartCounting() {
+            ordered = new ItemSet();
+            counted = 0;
+        }
+    }
+    
+    // Open-addressing set of items; -1 marks a free slot
+    private static class ItemSet {
+        private int[] keys = PairCounts.newKeys(4);
+        private int size;
+        
+        // False if the item was already present
+        boolean add(int key) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = PairCounts.mix(key) & mask;
+            while (keys[slot] >= 0) {
+                if (keys[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            size++;
+            return true;
+        }
+        
+        private void grow() {
+            int[] oldKeys = keys;
+            keys = PairCounts.newKeys(oldKeys.length * 2);
+            int mask = keys.length - 1;
+            for (int key : oldKeys) {
+                if (key >= 0) {
+                    int slot = PairCounts.mix(key) & mask;
+                    while (keys[slot] >= 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = key;
+                }
+            }
+        }
+    }
+    
+    // Open-addressing map from co-occurring item to count; -1 marks a free slot
+    private static class PairCounts {
+        private int[] keys = newKeys(8);
+        private int[] values = new int[8];
+        private int size;
+        
+        void increment(int key) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] < 0) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot]++;
+        }
+        
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int p = 0; p < oldKeys.length; p++) {
+                if (oldKeys[p] >= 0) {
+                    int slot = mix(oldKeys[p]) & mask;
+                    while (keys[slot] >= 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[p];
+                    values[slot] = oldValues[p];
+                }
+            }
+        }
+        
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, -1);
+            return keys;
+        }
+        
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+/**
+ * Conjugate gradient warm-started from the incoming {@code x}; {@code a} and {@code b} are left untouched.
+ */
+public class ConjugateGradientSolver implements LinearSolver {
+    
+    private static final double TOLERANCE = 1e-10;
+    
+    private final int n;
+    private final int maxIterations;
+    private final double[] r;
+    private final double[] p;
+    private final double[] ap;
+    
+    public ConjugateGradientSolver(int n, int maxIterations) {
+        this.n = n;
+        this.maxIterations = maxIterations;
+        this.r = new double[n];
+        this.p = new double[n];
+        this.ap = new double[n];
+    }
+    
+    @Override
+    public void solve(double[] a, double[] b, double[] x) {
+        multiply(a, x, ap);
+        double rsOld = 0.0;
+        for (int i = 0; i < n; i++) {
+            r[i] = b[i] - ap[i];
+            p[i] = r[i];
+            rsOld += r[i] * r[i];
+        }
+        
+        for (int iter = 0; iter < maxIterations && rsOld > TOLERANCE; iter++) {
+            multiply(a, p, ap);
+            double pAp = 0.0;
+            for (int i = 0; i < n; i++) {
+                pAp += p[i] * ap[i];
+            }
+            if (pAp <= 0.0) {
+                break;
+            }
+            
+            double alpha = rsOld / pAp;
+            double rsNew = 0.0;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * ap[i];
+                rsNew += r[i] * r[i];
+            }
+            
+            double beta = rsNew / rsOld;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * p[i];
+            }
+            rsOld = rsNew;
+        }
+    }
+    
+    private void multiply(double[] a, double[] v, double[] out) {
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            double sum = 0.0;
+            for (int j = 0; j < n; j++) {
+                sum += a[row + j] * v[j];
+            }
+            out[i] = sum;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.time.LocalDateTime;
+
+/**
+ * One time-based split: ratings before the cutoff and each test user's orders in the window after it.
+ */
+public class EvaluationFold {
+    
+    private final SparseRatingMatrix train;
+    private final int[] testUsers;
+    private final int[][] relevantItems;
+    private final LocalDateTime cutoff;
+    private final LocalDateTime end;
+    
+    public EvaluationFold(SparseRatingMatrix train, int[] testUsers, int[][] relevantItems,
+                          LocalDateTime cutoff, LocalDateTime end) {
+        if (testUsers.length != relevantItems.length) {
+            throw new IllegalArgumentException("Every test user needs a relevant item list");
+        }
+        this.train = train;
+        this.testUsers = testUsers;
+        this.relevantItems = relevantItems;
+        this.cutoff = cutoff;
+        this.end = end;
+    }
+    
+    public SparseRatingMatrix getTrain() {
+        return train;
+    }
+    
+    public int[] getTestUsers() {
+        return testUsers;
+    }
+    
+    public int[][] getRelevantItems() {
+        return relevantItems;
+    }
+    
+    public LocalDateTime getCutoff() {
+        return cutoff;
+    }
+    
+    public LocalDateTime getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+/**
+ * Trained latent factors stored row-major in flat float arrays, so the
+ * factors of user {@code u} live at {@code [u * numFactors, (u + 1) * numFactors)}.
+ */
+public class FactorModel {
+    
+    private final int numUsers;
+    private final int numItems;
+    private final int numFactors;
+    private final float[] userFactors;
+    private final float[] itemFactors;
+    
+    public FactorModel(int numUsers, int numItems, int numFactors,
+                       float[] userFactors, float[] itemFactors) {
+        this.numUsers = numUsers;
+        this.numItems = numItems;
+        this.numFactors = numFactors;
+        this.userFactors = userFactors;
+        this.itemFactors = itemFactors;
+    }
+    
+    public int getNumUsers() {
+        return numUsers;
+    }
+    
+    public int getNumItems() {
+        return numItems;
+    }
+    
+    public int getNumFactors() {
+        return numFactors;
+    }
+    
+    public float[] getUserFactors() {
+        return userFactors;
+    }
+    
+    public float[] getItemFactors() {
+        return itemFactors;
+    }
+    
+    public double score(int userIndex, int itemIndex) {
+        int u = userIndex * numFactors;
+        int i = itemIndex * numFactors;
+        double sum = 0.0;
+        for (int k = 0; k < numFactors; k++) {
+            sum += userFactors[u + k] * itemFactors[i + k];
+        }
+        return sum;
+    }
+    
+    /**
+     * Offers every item's score for the user vector at {@code query[queryOffset]} to {@code selector}.
+     */
+    public void scoreAllItems(float[] query, int queryOffset, TopKSelector selector) {
+        int offset = 0;
+        for (int i = 0; i < numItems; i++) {
+            double sum = 0.0;
+            for (int k = 0; k < numFactors; k++) {
+                sum += query[queryOffset + k] * itemFactors[offset + k];
+            }
+            selector.offer(i, sum);
+            offset += numFactors;
+        }
+    }
+}
@@ -0,0 +1,539 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * HNSW graph over item factors for approximate inner product search, made Euclidean by padding every
+ * item vector to the same norm. Vectors are read from the {@link FactorModel} the index was built from.
+ */
+public class HnswIndex implements ItemRetriever {
+    
+    private final int numItems;
+    private final int numFactors;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    
+    private final float[] extra;
+    private final int[] levels;
+    // links[node][level][0] is the neighbour count, followed by the neighbours
+    private final int[][][] links;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    
+    private HnswIndex(int numItems, int numFactors, int m, int efConstruction, int efSearch) {
+        this.numItems = numItems;
+        this.numFactors = numFactors;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.extra = new float[numItems];
+        this.levels = new int[numItems];
+        this.links = new int[numItems][][];
+    }
+    
+    public static HnswIndex build(FactorModel factors, int m, int efConstruction, int efSearch, long seed) {
+        HnswIndex index = new HnswIndex(factors.getNumItems(), factors.getNumFactors(), m, efConstruction, efSearch);
+        float[] vectors = factors.getItemFactors();
+        int k = factors.getNumFactors();
+        
+        double maxNormSq = 0.0;
+        double[] normsSq = new double[index.numItems];
+        for (int i = 0; i < index.numItems; i++) {
+            double sum = 0.0;
+            for (int f = 0; f < k; f++) {
+                double v = vectors[i * k + f];
+                sum += v * v;
+            }
+            normsSq[i] = sum;
+            maxNormSq = Math.max(maxNormSq, sum);
+        }
+        for (int i = 0; i < index.numItems; i++) {
+            index.extra[i] = (float) Math.sqrt(Math.max(0.0, maxNormSq - normsSq[i]));
+        }
+        
+        Random random = new Random(seed);
+        double levelMultiplier = 1.0 / Math.log(Math.max(2, m));
+        for (int i = 0; i < index.numItems; i++) {
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            index.insert(vectors, i, level);
+        }
+        return index;
+    }
+    
+    void writeTo(LittleEndianWriter writer) throws IOException {
+        writer.putInt(m);
+        writer.putInt(efConstruction);
+        writer.putInt(efSearch);
+        writer.putInt(entryPoint);
+        writer.putInt(maxLevel);
+        writer.putFloats(extra);
+        writer.putInts(levels);
+        for (int node = 0; node < numItems; node++) {
+            for (int[] neighbours : links[node]) {
+                writer.putInt(neighbours[0]);
+                for (int p = 1; p <= neighbours[0]; p++) {
+                    writer.putInt(neighbours[p]);
+                }
+            }
+        }
+    }
+    
+    // Every id is checked on load, so a corrupt graph is rejected instead of failing searches
+    static HnswIndex readFrom(ByteBuffer buffer, int numItems, int numFactors) throws IOException {
+        try {
+            int m = buffer.getInt();
+            int efConstruction = buffer.getInt();
+            int efSearch = buffer.getInt();
+            if (m < 1 || efSearch < 1) {
+                throw new IOException("Invalid HNSW parameters m=" + m + ", efSearch=" + efSearch);
+            }
+            HnswIndex index = new HnswIndex(numItems, numFactors, m, efConstruction, efSearch);
+            index.entryPoint = buffer.getInt();
+            index.maxLevel = buffer.getInt();
+            boolean empty = numItems == 0;
+            if (empty ? index.entryPoint != -1 || index.maxLevel != -1
+                      : index.entryPoint < 0 || index.entryPoint >= numItems || index.maxLevel < 0) {
+                throw new IOException("Invalid HNSW entry point " + index.entryPoint + " at level " + index.maxLevel);
+            }
+            buffer.asFloatBuffer().get(index.extra);
+            buffer.position(buffer.position() + numItems * Float.BYTES);
+            buffer.asIntBuffer().get(index.levels);
+            buffer.position(buffer.position() + numItems * Integer.BYTES);
+            for (int node = 0; node < numItems; node++) {
+                if (index.levels[node] < 0 || index.levels[node] > index.maxLevel) {
+                    throw new IOException("HNSW node " + node + " has invalid level " + index.levels[node]);
+                }
+            }
+            if (!empty && index.levels[index.entryPoint] != index.maxLevel) {
+                throw new IOException("HNSW entry point is not on the top level");
+            }
+            
+            for (int node = 0; node < numItems; node++) {
+                int level = index.levels[node];
+                index.links[node] = new int[level + 1][];
+                for (int l = 0; l <= level; l++) {
+                    int[] neighbours = new int[1 + (l == 0 ? index.maxM0 : m)];
+                    neighbours[0] = buffer.getInt();
+                    if (neighbours[0] < 0 || neighbours[0] >= neighbours.length) {
+                        throw new IOException("HNSW node " + node + " has " + neighbours[0] + " links at level " + l);
+                    }
+                    for (int p = 1; p <= neighbours[0]; p++) {
+                        int neighbour = buffer.getInt();
+                        // Searches follow links[neighbour][l], so the neighbour must reach this level
+                        if (neighbour < 0 || neighbour >= numItems || index.levels[neighbour] < l) {
+                            throw new IOException("HNSW node " + node + " links to invalid node " + neighbour);
+                        }
+                        neighbours[p] = neighbour;
+                    }
+                    index.links[node][l] = neighbours;
+                }
+            }
+            return index;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("HNSW section is truncated");
+        }
+    }
+    
+    /**
+     * Approximate heap needed for an index over {@code numItems} items.
+     */
+    public static long estimateBytes(long numItems, int m) {
+        // extra coordinate and level, a level-0 list of up to 2m links, array headers
+        return numItems * (8L + (2L * m + 1L) * 4L + 64L);
+    }
+    
+    public int size() {
+        return numItems;
+    }
+    
+    public int getNumFactors() {
+        return numFactors;
+    }
+    
+    public int getEfSearch() {
+        return efSearch;
+    }
+    
+    public void setEfSearch(int efSearch) {
+        this.efSearch = efSearch;
+    }
+    
+    @Override
+    public void topItems(FactorModel factors, float[] query, int queryOffset, TopKSelector selector) {
+        if (entryPoint < 0) {
+            return;
+        }
+        float[] vectors = factors.getItemFactors();
+        
+        int current = entryPoint;
+        float currentDist = queryDistance(vectors, query, queryOffset, current);
+        for (int level = maxLevel; level > 0; level--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] neighbours = links[current][level];
+                for (int p = 1; p <= neighbours[0]; p++) {
+                    int candidate = neighbours[p];
+                    float d = queryDistance(vectors, query, queryOffset, candidate);
+                    if (d < currentDist) {
+                        currentDist = d;
+                        current = candidate;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        
+        int ef = Math.max(efSearch, selector.capacity());
+        NodeHeap results = searchLayer(vectors, query, queryOffset, -1, current, ef, 0);
+        for (int p = 0; p < results.size; p++) {
+            selector.offer(results.nodes[p], -results.dists[p]);
+        }
+    }
+    
+    private void insert(float[] vectors, int node, int level) {
+        levels[node] = level;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[1 + (l == 0 ? maxM0 : m)];
+        }
+        
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        
+        int current = entryPoint;
+        float currentDist = itemDistance(vectors, node, current);
+        for (int l = maxLevel; l > level; l--) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                int[] neighbours = links[current][l];
+                for (int p = 1; p <= neighbours[0]; p++) {
+                    int candidate = neighbours[p];
+                    float d = itemDistance(vectors, node, candidate);
+                    if (d < currentDist) {
+                        currentDist = d;
+                        current = candidate;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            NodeHeap candidates = searchLayer(vectors, null, 0, node, current, efConstruction, l);
+            candidates.sortAscending();
+            int[] selected = selectNeighbours(vectors, candidates.nodes, candidates.dists, candidates.size, m);
+            
+            int[] own = links[node][l];
+            for (int neighbour : selected) {
+                own[++own[0]] = neighbour;
+                connect(vectors, neighbour, node, l);
+            }
+            current = candidates.nodes[0];
+        }
+        
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+    
+    private void connect(float[] vectors, int from, int to, int level) {
+        int[] neighbours = links[from][level];
+        int capacity = neighbours.length - 1;
+        if (neighbours[0] < capacity) {
+            neighbours[++neighbours[0]] = to;
+            return;
+        }
+        
+        int count = neighbours[0] + 1;
+        int[] nodes = new int[count];
+        float[] dists = new float[count];
+        for (int p = 0; p < count - 1; p++) {
+            nodes[p] = neighbours[p + 1];
+        }
+        nodes[count - 1] = to;
+        for (int p = 0; p < count; p++) {
+            dists[p] = itemDistance(vectors, from, nodes[p]);
+        }
+        sortByDistance(nodes, dists, count);
+        
+        int[] kept = selectNeighbours(vectors, nodes, dists, count, capacity);
+        neighbours[0] = kept.length;
+        System.arraycopy(kept, 0, neighbours, 1, kept.length);
+    }
+    
+    // Neighbour selection heuristic from the HNSW paper: keep a candidate only
+    // if it is closer to the base node than to every neighbour kept so far,
+    // then top up with the closest pruned candidates. Candidates must be
+    // sorted by ascending distance.
+    private int[] selectNeighbours(float[] vectors, int[] nodes, float[] dists, int count, int max) {
+        int[] selected = new int[Math.min(max, count)];
+        boolean[] taken = new boolean[count];
+        int size = 0;
+        
+        for (int p = 0; p < count && size < selected.length; p++) {
+            boolean keep = true;
+            for (int q = 0; q < size; q++) {
+                if (itemDistance(vectors, nodes[p], selected[q]) < dists[p]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[size++] = nodes[p];
+                taken[p] = true;
+            }
+        }
+        for (int p = 0; p < count && size < selected.length; p++) {
+            if (!taken[p]) {
+                selected[size++] = nodes[p];
+            }
+        }
+        return selected;
+    }
+    
+    // Best-first search of one layer. With queryNode >= 0 the query is that
+    // item (index build); otherwise it is the user vector in query[].
+    private NodeHeap searchLayer(float[] vectors, float[] query, int queryOffset, int queryNode,
+                                 int entry, int ef, int level) {
+        VisitedSet visited = new VisitedSet(ef * 4);
+        
+        NodeHeap candidates = new NodeHeap(ef + 1, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        
+        float entryDist = distance(vectors, query, queryOffset, queryNode, entry);
+        visited.add(entry);
+        candidates.push(entry, entryDist);
+        results.push(entry, entryDist);
+        
+        while (candidates.size > 0) {
+            int current = candidates.nodes[0];
+            float currentDist = candidates.dists[0];
+            if (currentDist > results.dists[0] && results.size >= ef) {
+                break;
+            }
+            candidates.pop();
+            
+            int[] neighbours = links[current][level];
+            for (int p = 1; p <= neighbours[0]; p++) {
+                int neighbour = neighbours[p];
+                if (!visited.add(neighbour)) {
+                    continue;
+                }
+                
+                float d = distance(vectors, query, queryOffset, queryNode, neighbour);
+                if (results.size < ef || d < results.dists[0]) {
+                    candidates.push(neighbour, d);
+                    results.push(neighbour, d);
+                    if (results.size > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+    
+    private float distance(float[] vectors, float[] query, int queryOffset, int queryNode, int node) {
+        return queryNode >= 0
+            ? itemDistance(vectors, queryNode, node)
+            : queryDistance(vectors, query, queryOffset, node);
+    }
+    
+    private float queryDistance(float[] vectors, float[] query, int queryOffset, int node) {
+        int offset = node * numFactors;
+        float dot = 0f;
+        for (int f = 0; f < numFactors; f++) {
+            dot += query[queryOffset + f] * vectors[offset + f];
+        }
+        return -dot;
+    }
+    
+    private float itemDistance(float[] vectors, int a, int b) {
+        int offsetA = a * numFactors;
+        int offsetB = b * numFactors;
+        float sum = 0f;
+        for (int f = 0; f < numFactors; f++) {
+            float d = vectors[offsetA + f] - vectors[offsetB + f];
+            sum += d * d;
+        }
+        float d = extra[a] - extra[b];
+        return sum + d * d;
+    }
+    
+    private static void sortByDistance(int[] nodes, float[] dists, int count) {
+        for (int p = 1; p < count; p++) {
+            int node = nodes[p];
+            float dist = dists[p];
+            int q = p - 1;
+            while (q >= 0 && dists[q] > dist) {
+                nodes[q + 1] = nodes[q];
+                dists[q + 1] = dists[q];
+                q--;
+            }
+            nodes[q + 1] = node;
+            dists[q + 1] = dist;
+        }
+    }
+    
+    // Open-addressed set of visited nodes, sized to one search rather than the index
+    private static class VisitedSet {
+        // node + 1, or 0 for an empty slot
+        private int[] slots;
+        private int size;
+        
+        VisitedSet(int expected) {
+            slots = new int[LongIdDictionary.tableSize(expected)];
+        }
+        
+        // Returns false if the node was already visited
+        boolean add(int node) {
+            if (size * 2 >= slots.length) {
+                grow();
+            }
+            int mask = slots.length - 1;
+            for (int slot = LongIdDictionary.mix(node) & mask; ; slot = (slot + 1) & mask) {
+                if (slots[slot] == 0) {
+                    slots[slot] = node + 1;
+                    size++;
+                    return true;
+                }
+                if (slots[slot] == node + 1) {
+                    return false;
+                }
+            }
+        }
+        
+        private void grow() {
+            int[] old = slots;
+            slots = new int[old.length * 2];
+            int mask = slots.length - 1;
+            for (int entry : old) {
+                if (entry != 0) {
+                    int slot = LongIdDictionary.mix(entry - 1) & mask;
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    slots[slot] = entry;
+                }
+            }
+        }
+    }
+    
+    // Binary heap of (node, distance); the root is the farthest node when
+    // max is true and the closest otherwise.
+    private static class NodeHeap {
+        int[] nodes;
+        float[] dists;
+        final boolean max;
+        int size;
+        
+        NodeHeap(int capacity, boolean max) {
+            this.nodes = new int[capacity];
+            this.dists = new float[capacity];
+            this.max = max;
+        }
+        
+        void push(int node, float dist) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                dists = Arrays.copyOf(dists, size * 2);
+            }
+            int p = size++;
+            while (p > 0) {
+                int parent = (p - 1) >>> 1;
+                if (!before(dist, dists[parent])) {
+                    break;
+                }
+                nodes[p] = nodes[parent];
+                dists[p] = dists[parent];
+                p = parent;
+            }
+            nodes[p] = node;
+            dists[p] = dist;
+        }
+        
+        void pop() {
+            size--;
+            if (size == 0) {
+                return;
+            }
+            int node = nodes[size];
+            float dist = dists[size];
+            int p = 0;
+            while (true) {
+                int child = 2 * p + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(dists[child + 1], dists[child])) {
+                    child++;
+                }
+                if (!before(dists[child], dist)) {
+                    break;
+                }
+                nodes[p] = nodes[child];
+                dists[p] = dists[child];
+                p = child;
+            }
+            nodes[p] = node;
+            dists[p] = dist;
+        }
+        
+        // Only valid on a max-heap: pops every entry so that nodes and dists
+        // end up ordered by ascending distance.
+        void sortAscending() {
+            int count = size;
+            int[] sortedNodes = new int[count];
+            float[] sortedDists = new float[count];
+            for (int p = count - 1; p >= 0; p--) {
+                sortedNodes[p] = nodes[0];
+                sortedDists[p] = dists[0];
+                pop();
+            }
+            System.arraycopy(sortedNodes, 0, nodes, 0, count);
+            System.arraycopy(sortedDists, 0, dists, 0, count);
+            size = count;
+        }
+        
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
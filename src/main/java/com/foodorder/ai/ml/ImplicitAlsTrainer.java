@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Implicit-feedback ALS (Hu, Koren and Volinsky) with confidence {@code 1 + alpha * r}; {@code Y^T Y}
+ * is computed once per half-sweep and shared by every row.
+ */
+public class ImplicitAlsTrainer extends AlsTrainer {
+    
+    private final double alpha;
+    
+    private volatile double[] gramian;
+    
+    public ImplicitAlsTrainer(AlsConfig config) {
+        super(config);
+        this.alpha = config.getAlpha();
+    }
+    
+    @Override
+    protected void prepareHalfSweep(ForkJoinPool pool, float[] fixed, int fixedRows) {
+        gramian = gramian(pool, fixed, fixedRows);
+    }
+    
+    // Lower triangle of F^T F for the given factor rows
+    private double[] gramian(ForkJoinPool pool, float[] fixed, int fixedRows) {
+        int numChunks = numReductionChunks(fixedRows);
+        double[][] partials = new double[numChunks][];
+        
+        runChunked(pool, numChunks, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                double[] partial = new double[numFactors * numFactors];
+                partials[c] = partial;
+                int start = c * REDUCTION_CHUNK_ROWS;
+                int end = Math.min(fixedRows, start + REDUCTION_CHUNK_ROWS);
+                for (int r = start; r < end; r++) {
+                    int offset = r * numFactors;
+                    for (int k = 0; k < numFactors; k++) {
+                        double fk = fixed[offset + k];
+                        int rowK = k * numFactors;
+                        for (int l = 0; l <= k; l++) {
+                            partial[rowK + l] += fk * fixed[offset + l];
+                        }
+                    }
+                }
+            }
+        });
+        
+        // Chunks are a fixed number of rows, so this ordered sum is the same for any thread count
+        double[] sum = new double[numFactors * numFactors];
+        for (double[] partial : partials) {
+            for (int p = 0; p < sum.length; p++) {
+                sum[p] += partial[p];
+            }
+        }
+        return sum;
+    }
+    
+    /**
+     * Confidence-weighted squared error per cell; the unobserved part comes from the item Gramian.
+     */
+    @Override
+    protected double loss(ForkJoinPool pool, SparseRatingMatrix ratings, float[] userFactors, float[] itemFactors) {
+        double[] itemGramian = gramian(pool, itemFactors, ratings.ncol());
+        int[] rowPtr = ratings.getRowPointers();
+        int[] colIdx = ratings.getColumnIndices();
+        float[] values = ratings.getRowValues();
+        
+        double total = sumChunked(pool, ratings.nrow(), (from, to) -> {
+            double sum = 0.0;
+            for (int u = from; u < to; u++) {
+                int userOffset = u * numFactors;
+                for (int k = 0; k < numFactors; k++) {
+                    double xk = userFactors[userOffset + k];
+                    int rowK = k * numFactors;
+                    for (int l = 0; l < k; l++) {
+                        sum += 2.0 * xk * itemGramian[rowK + l] * userFactors[userOffset + l];
+                    }
+                    sum += xk * itemGramian[rowK + k] * xk;
+                }
+                for (int p = rowPtr[u]; p < rowPtr[u + 1]; p++) {
+                    double predicted = dot(userFactors, userOffset, itemFactors, colIdx[p] * numFactors);
+                    double confidence = 1.0 + alpha * values[p];
+                    sum += confidence * (1.0 - predicted) * (1.0 - predicted) - predicted * predicted;
+                }
+            }
+            return sum;
+        });
+        return total / Math.max(1.0, (double) ratings.nrow() * ratings.ncol());
+    }
+    
+    @Override
+    protected void accumulate(int start, int end, int[] indices, float[] values, float[] fixed,
+                              double[] A, double[] b) {
+        System.arraycopy(gramian, 0, A, 0, A.length);
+        
+        for (int p = start; p < end; p++) {
+            double confidence = 1.0 + alpha * values[p];
+            double extra = confidence - 1.0;
+            int offset = indices[p] * numFactors;
+            
+            for (int k = 0; k < numFactors; k++) {
+                double fk = fixed[offset + k];
+                b[k] += confidence * fk;
+                int rowK = k * numFactors;
+                for (int l = 0; l <= k; l++) {
+                    A[rowK + l] += extra * fk * fixed[offset + l];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+/**
+ * Solves the symmetric positive definite systems of the ALS normal equations; {@code x} holds a warm start.
+ * Implementations keep their own scratch space and are not thread-safe.
+ */
+public interface LinearSolver {
+    
+    void solve(double[] a, double[] b, double[] x);
+    
+    enum Type {
+        CHOLESKY,
+        CONJUGATE_GRADIENT;
+        
+        public LinearSolver create(int n, int maxIterations) {
+            if (this == CONJUGATE_GRADIENT) {
+                return new ConjugateGradientSolver(n, maxIterations);
+            }
+            return new CholeskySolver(n);
+        }
+        
+        public static Type fromName(String name) {
+            String normalized = name.trim().toLowerCase();
+            if (normalized.equals("cg") || normalized.equals("conjugate-gradient")) {
+                return CONJUGATE_GRADIENT;
+            }
+            if (normalized.equals("cholesky")) {
+                return CHOLESKY;
+            }
+            throw new IllegalArgumentException("Unknown ALS solver: " + name);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Buffered little-endian writer over a file channel that keeps a CRC32 of
+ * everything written through it.
+ */
+class LittleEndianWriter {
+    
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private long bytesWritten;
+    
+    LittleEndianWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+    
+    void putInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+    
+    void putLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+    
+    void putFloat(float value) throws IOException {
+        ensure(Float.BYTES);
+        buffer.putFloat(value);
+    }
+    
+    void putInts(int[] values) throws IOException {
+        for (int value : values) {
+            putInt(value);
+        }
+    }
+    
+    void putLongs(long[] values) throws IOException {
+        for (long value : values) {
+            putLong(value);
+        }
+    }
+    
+    void putFloats(float[] values) throws IOException {
+        for (float value : values) {
+            putFloat(value);
+        }
+    }
+    
+    void putBytes(byte[] values) throws IOException {
+        int offset = 0;
+        while (offset < values.length) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), values.length - offset);
+            buffer.put(values, offset, length);
+            offset += length;
+        }
+    }
+    
+    void padTo(int alignment) throws IOException {
+        while ((position() % alignment) != 0) {
+            ensure(1);
+            buffer.put((byte) 0);
+        }
+    }
+    
+    long position() {
+        return bytesWritten + buffer.position();
+    }
+    
+    long checksum() {
+        return crc.getValue();
+    }
+    
+    void flush() throws IOException {
+        buffer.flip();
+        ByteBuffer view = buffer.duplicate();
+        crc.update(view);
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
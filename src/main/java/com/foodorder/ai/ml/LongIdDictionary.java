@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Dense indices for long ids in first-seen order, looked up through an open-addressing table.
+ * Not thread-safe while ids are being added.
+ */
+class LongIdDictionary {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private long[] ids;
+    private int[] slots;
+    private int size;
+    
+    LongIdDictionary() {
+        this(INITIAL_CAPACITY);
+    }
+    
+    LongIdDictionary(int expected) {
+        ids = new long[Math.max(expected, 1)];
+        slots = new int[tableSize(expected)];
+    }
+    
+    LongIdDictionary(long[] ids) {
+        this(ids.length);
+        for (long id : ids) {
+            add(id);
+        }
+    }
+    
+    /**
+     * The id's index, assigning the next one if the id is new.
+     */
+    int add(long id) {
+        int mask = slots.length - 1;
+        int slot = mix(id) & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (ids[index] == id) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        ids[size] = id;
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return size - 1;
+    }
+    
+    /**
+     * The id's index, or -1 if it has none.
+     */
+    int indexOf(long id) {
+        int mask = slots.length - 1;
+        int slot = mix(id) & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (ids[index] == id) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    long idAt(int index) {
+        return ids[index];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    void writeTo(LittleEndianWriter writer) throws IOException {
+        for (int i = 0; i < size; i++) {
+            writer.putLong(ids[i]);
+        }
+    }
+    
+    /**
+     * Reads {@code count} ids written by {@link #writeTo}, leaving the
+     * buffer positioned after them.
+     */
+    static LongIdDictionary readFrom(ByteBuffer buffer, int count) {
+        long[] ids = new long[count];
+        buffer.asLongBuffer().get(ids);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        return new LongIdDictionary(ids);
+    }
+    
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = mix(ids[index]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+    
+    // At most half full, so probe runs stay short
+    static int tableSize(int expected) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < expected * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    // Sequential ids would otherwise fill one run of adjacent slots
+    static int mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
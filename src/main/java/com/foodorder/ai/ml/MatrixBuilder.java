@@ -25,97 +25,121 @@
 package com.foodorder.ai.ml;
 
 import com.foodorder.ai.model.UserItemInteraction;
-import smile.math.matrix.Matrix;
 
 import java.util.*;
 
+/**
+ * Assigns dense user and item indices and collects ratings into a
+ * {@link SparseRatingMatrix}. The finished id mappings travel with the
+ * trained model and are read on every recommendation, so they are kept in
+ * primitive dictionaries rather than boxed maps.
+ */
 public class MatrixBuilder {
     
-    private Map<String, Integer> userIdToIndex;
-    private Map<Long, Integer> itemIdToIndex;
-    private Map<Integer, String> indexToUserId;
-    private Map<Integer, Long> indexToItemId;
+    private final StringIdDictionary users;
+    private final LongIdDictionary items;
+    
+    // Ratings added so far, as (user, item, value) triplets
+    private int[] rows = new int[INITIAL_CAPACITY];
+    private int[] cols = new int[INITIAL_CAPACITY];
+    private float[] values = new float[INITIAL_CAPACITY];
+    private int count;
+    
+    private static final int INITIAL_CAPACITY = 1024;
     
     public MatrixBuilder() {
-        this.userIdToIndex = new HashMap<>();
-        this.itemIdToIndex = new HashMap<>();
-        this.indexToUserId = new HashMap<>();
-        this.indexToItemId = new HashMap<>();
+        this(new StringIdDictionary(), new LongIdDictionary());
     }
     
-    public Matrix buildRatingMatrix(List<UserItemInteraction> interactions) {
-        buildMappings(interactions);
-        
-        int numUsers = userIdToIndex.size();
-        int numItems = itemIdToIndex.size();
-        
-        double[][] data = new double[numUsers][numItems];
-        
-        for (UserItemInteraction interaction : interactions) {
-            Integer userIndex = userIdToIndex.get(interaction.getUserId());
-            Integer itemIndex = itemIdToIndex.get(interaction.getFoodItemId());
-            
-            if (userIndex != null && itemIndex != null) {
-                data[userIndex][itemIndex] = interaction.getRating();
-            }
-        }
-        
-        return Matrix.of(data);
+    public MatrixBuilder(String[] userIds, long[] itemIds) {
+        this(new StringIdDictionary(userIds), new LongIdDictionary(itemIds));
     }
     
-    private void buildMappings(List<UserItemInteraction> interactions) {
-        Set<String> userIds = new HashSet<>();
-        Set<Long> itemIds = new HashSet<>();
-        
+    MatrixBuilder(StringIdDictionary users, LongIdDictionary items) {
+        this.users = users;
+        this.items = items;
+    }
+    
+    public SparseRatingMatrix buildRatingMatrix(List<UserItemInteraction> interactions) {
         for (UserItemInteraction interaction : interactions) {
-            userIds.add(interaction.getUserId());
-            itemIds.add(interaction.getFoodItemId());
+            add(interaction.getUserId(), interaction.getFoodItemId(), interaction.getRating());
         }
+        return build();
+    }
+    
+    /**
+     * Adds one rating, assigning indices to ids in first-seen order. Ratings
+     * are kept as primitive triplets until {@link #build()}, so callers can
+     * stream rows in without holding them.
+     */
+    public void add(String userId, Long itemId, Double rating) {
+        int userIndex = users.add(userId);
+        int itemIndex = items.add(itemId);
         
-        int userIndex = 0;
-        for (String userId : userIds) {
-            userIdToIndex.put(userId, userIndex);
-            indexToUserId.put(userIndex, userId);
-            userIndex++;
+        if (rating == null) {
+            return;
         }
-        
-        int itemIndex = 0;
-        for (Long itemId : itemIds) {
-            itemIdToIndex.put(itemId, itemIndex);
-            indexToItemId.put(itemIndex, itemId);
-            itemIndex++;
+        if (count == rows.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, rows.length + (rows.length >> 1));
+            rows = Arrays.copyOf(rows, capacity);
+            cols = Arrays.copyOf(cols, capacity);
+            values = Arrays.copyOf(values, capacity);
         }
+        rows[count] = userIndex;
+        cols[count] = itemIndex;
+        values[count] = rating.floatValue();
+        count++;
+    }
+    
+    /**
+     * Builds the rating matrix from everything added so far and releases the
+     * triplet buffers. Later ratings for the same user and item win.
+     */
+    public SparseRatingMatrix build() {
+        SparseRatingMatrix matrix = SparseRatingMatrix.fromTriplets(
+            users.size(), items.size(), rows, cols, values, count);
+        rows = new int[0];
+        cols = new int[0];
+        values = new float[0];
+        count = 0;
+        return matrix;
     }
     
-    public Integer getUserIndex(String userId) {
-        return userIdToIndex.get(userId);
+    /**
+     * The user's index, or -1 if the user has none.
+     */
+    public int getUserIndex(String userId) {
+        return users.indexOf(userId);
     }
     
-    public Integer getItemIndex(Long itemId) {
-        return itemIdToIndex.get(itemId);
+    /**
+     * The item's index, or -1 if the item has none.
+     */
+    public int getItemIndex(long itemId) {
+        return items.indexOf(itemId);
     }
     
     public String getUserId(int index) {
-        return indexToUserId.get(index);
+        return users.idAt(index);
     }
     
-    public Long getItemId(int index) {
-        return indexToItemId.get(index);
+    public long getItemId(int index) {
+        return items.idAt(index);
     }
     
-    public Map<String, Integer> getUserIdToIndex() {
-        return userIdToIndex;
+    public int getNumUsers() {
+        return users.size();
     }
     
-    public Map<Long, Integer> getItemIdToIndex() {
-        return itemIdToIndex;
+    public int getNumItems() {
+        return items.size();
     }
     
-    public int getNumUsers() {
-        return userIdToIndex.size();
+    StringIdDictionary getUsers() {
+        return users;
     }
     
-    public int getNumItems() {
-        return itemIdToIndex.size();
+    LongIdDictionary getItems() {
+        return items;
     }
 }
@@ -24,64 +24,227 @@
 
 package com.foodorder.ai.ml;
 
-import java.io.*;
-import java.util.Map;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
 
+/**
+ * Reads and writes a {@link ModelSnapshot} as one self-describing binary
+ * file. All values are little-endian.
+ *
+ * <pre>
+ * header (56 bytes)
+ *   int   magic "FOAI"      int   format version
+ *   int   numUsers          int   numItems
+ *   int   numFactors        int   flags (1 = ANN section present)
+ *   long  trainedAt (epoch millis)
+ *   long  watermark (highest interaction id used for training)
+ *   long  payload length    long  CRC32 of the payload
+ * payload
+ *   float userFactors[numUsers * numFactors]
+ *   float itemFactors[numItems * numFactors]
+ *   long  itemIds[numItems]
+ *   int   userIdOffsets[numUsers + 1], then the UTF-8 bytes of all user ids
+ *   optional HNSW graph, 4-byte aligned
+ * </pre>
+ *
+ * Files are written to a temporary file and renamed into place, so readers
+ * see either the previous model or the new one. Loading maps the file and
+ * bulk-copies the factor arrays without any deserialization.
+ *
+ * A mapped buffer holds at most 2 GB, so the checksum and the factor
+ * arrays are read through as many regions as they need. The id and HNSW
+ * sections are each read from a single region; saving fails before the
+ * rename if either would not fit in one, so a file that replaces the
+ * previous model can always be loaded.
+ */
 public class ModelPersistence {
     
     private static final String MODEL_DIR = "ml-models/";
     
-    public static void saveModel(Object model, String filename) throws IOException {
+    private static final int MAGIC = 0x49414F46; // "FOAI" read as little-endian
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 56;
+    private static final int FLAG_ANN_INDEX = 1;
+    private static final long MAX_SECTION_BYTES = Integer.MAX_VALUE;
+    private static final int REGION_BYTES = 1 << 30;
+    
+    public static void saveModel(ModelSnapshot snapshot, String filename) throws IOException {
         File dir = new File(MODEL_DIR);
         if (!dir.exists()) {
             dir.mkdirs();
         }
         
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(MODEL_DIR + filename))) {
-            oos.writeObject(model);
+        Path target = Paths.get(MODEL_DIR, filename);
+        Path temp = Paths.get(MODEL_DIR, filename + ".tmp");
+        FactorModel factors = snapshot.getFactors();
+        MatrixBuilder mappings = snapshot.getMappings();
+        HnswIndex annIndex = snapshot.getRetriever() instanceof HnswIndex
+            ? (HnswIndex) snapshot.getRetriever()
+            : null;
+        
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            LittleEndianWriter writer = new LittleEndianWriter(channel);
+            
+            writer.putFloats(factors.getUserFactors());
+            writer.putFloats(factors.getItemFactors());
+            
+            long itemsStart = writer.position();
+            mappings.getItems().writeTo(writer);
+            long usersStart = writer.position();
+            checkSection("Item id", usersStart - itemsStart);
+            mappings.getUsers().writeTo(writer);
+            checkSection("User id", writer.position() - usersStart);
+            
+            if (annIndex != null) {
+                writer.padTo(Integer.BYTES);
+                long annStart = writer.position();
+                annIndex.writeTo(writer);
+                checkSection("HNSW index", writer.position() - annStart);
+            }
+            writer.flush();
+            
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(factors.getNumUsers());
+            header.putInt(factors.getNumItems());
+            header.putInt(factors.getNumFactors());
+            header.putInt(annIndex != null ? FLAG_ANN_INDEX : 0);
+            header.putLong(snapshot.getTrainedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            header.putLong(snapshot.getWatermark());
+            header.putLong(writer.position());
+            header.putLong(writer.checksum());
+            header.flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
         }
+        
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
     
-    public static Object loadModel(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(MODEL_DIR + filename))) {
-            return ois.readObject();
+    /**
+     * Loads a model written by {@link #saveModel}. The returned snapshot carries
+     * the stored HNSW index as its retriever when the file has one.
+     */
+    public static ModelSnapshot loadModel(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(MODEL_DIR, filename), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Model file is truncated");
+            }
+            ByteBuffer buffer = map(channel, 0, HEADER_SIZE);
+            
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a model file: " + filename);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported model format version " + version);
+            }
+            int numUsers = buffer.getInt();
+            int numItems = buffer.getInt();
+            int numFactors = buffer.getInt();
+            int flags = buffer.getInt();
+            long trainedAt = buffer.getLong();
+            long watermark = buffer.getLong();
+            long payloadLength = buffer.getLong();
+            long checksum = buffer.getLong();
+            
+            if (HEADER_SIZE + payloadLength != channel.size()) {
+                throw new IOException("Model file size does not match its header");
+            }
+            if (checksum(channel, HEADER_SIZE, payloadLength) != checksum) {
+                throw new IOException("Model file checksum mismatch");
+            }
+            
+            long position = HEADER_SIZE;
+            float[] userFactors = new float[numUsers * numFactors];
+            float[] itemFactors = new float[numItems * numFactors];
+            position = readFloats(channel, position, userFactors);
+            position = readFloats(channel, position, itemFactors);
+            
+            ByteBuffer section = map(channel, position, (long) numItems * Long.BYTES);
+            LongIdDictionary itemIds = LongIdDictionary.readFrom(section, numItems);
+            position += section.position();
+            
+            section = map(channel, position, Math.min(channel.size() - position, MAX_SECTION_BYTES));
+            StringIdDictionary userIds = StringIdDictionary.readFrom(section, numUsers);
+            position += section.position();
+            
+            FactorModel factors = new FactorModel(numUsers, numItems, numFactors, userFactors, itemFactors);
+            HnswIndex annIndex = null;
+            if ((flags & FLAG_ANN_INDEX) != 0) {
+                // The header is 4-byte aligned, so payload and file alignment agree
+                position = (position + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+                annIndex = HnswIndex.readFrom(map(channel, position, channel.size() - position), numItems, numFactors);
+            }
+            
+            return new ModelSnapshot(
+                new MatrixBuilder(userIds, itemIds),
+                factors,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(trainedAt), ZoneId.systemDefault()),
+                watermark,
+                annIndex
+            );
         }
     }
     
-    public static void saveMappings(Map<String, Integer> userMapping, 
-                                   Map<Long, Integer> itemMapping,
-                                   String filename) throws IOException {
-        File dir = new File(MODEL_DIR);
-        if (!dir.exists()) {
-            dir.mkdirs();
+    public static boolean modelExists(String filename) {
+        File file = new File(MODEL_DIR + filename);
+        return file.exists();
+    }
+    
+    private static void checkSection(String name, long bytes) throws IOException {
+        if (bytes > MAX_SECTION_BYTES) {
+            throw new IOException(name + " section is " + bytes + " bytes; at most 2 GB can be loaded");
         }
-        
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(MODEL_DIR + filename))) {
-            oos.writeObject(userMapping);
-            oos.writeObject(itemMapping);
+    }
+    
+    private static long checksum(FileChannel channel, long offset, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        for (long done = 0; done < length; done += REGION_BYTES) {
+            crc.update(map(channel, offset + done, Math.min(REGION_BYTES, length - done)));
         }
+        return crc.getValue();
     }
     
-    @SuppressWarnings("unchecked")
-    public static Map<String, Object> loadMappings(String filename) 
-            throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(MODEL_DIR + filename))) {
-            Map<String, Integer> userMapping = (Map<String, Integer>) ois.readObject();
-            Map<Long, Integer> itemMapping = (Map<Long, Integer>) ois.readObject();
-            
-            return Map.of(
-                "userMapping", userMapping,
-                "itemMapping", itemMapping
-            );
+    // Copies the array from consecutive regions starting at offset; returns the offset after it
+    private static long readFloats(FileChannel channel, long offset, float[] values) throws IOException {
+        int done = 0;
+        while (done < values.length) {
+            int count = Math.min(REGION_BYTES / Float.BYTES, values.length - done);
+            map(channel, offset, (long) count * Float.BYTES).asFloatBuffer().get(values, done, count);
+            offset += (long) count * Float.BYTES;
+            done += count;
         }
+        return offset;
     }
     
-    public static boolean modelExists(String filename) {
-        File file = new File(MODEL_DIR + filename);
-        return file.exists();
+    private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (length > MAX_SECTION_BYTES) {
+            throw new IOException("Model file section of " + length + " bytes is larger than 2 GB");
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        return mapped.order(ByteOrder.LITTLE_ENDIAN);
     }
 }
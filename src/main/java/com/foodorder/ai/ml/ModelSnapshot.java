@@ -0,0 +1,177 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything needed to serve from one training run. Never modified once published, except that
+ * folded-in user rows are replaced whole.
+ */
+public class ModelSnapshot {
+    
+    private final MatrixBuilder mappings;
+    private final FactorModel factors;
+    private final LocalDateTime trainedAt;
+    private final long watermark;
+    private final ItemRetriever retriever;
+    private final RecommendationTable recommendationTable;
+    private final Map<String, float[]> foldedUsers;
+    
+    public ModelSnapshot(MatrixBuilder mappings, FactorModel factors, LocalDateTime trainedAt,
+                         long watermark, ItemRetriever retriever) {
+        this(mappings, factors, trainedAt, watermark, retriever, null, new ConcurrentHashMap<>());
+    }
+    
+    private ModelSnapshot(MatrixBuilder mappings, FactorModel factors, LocalDateTime trainedAt,
+                          long watermark, ItemRetriever retriever, RecommendationTable recommendationTable,
+                          Map<String, float[]> foldedUsers) {
+        this.mappings = mappings;
+        this.factors = factors;
+        this.trainedAt = trainedAt;
+        this.watermark = watermark;
+        this.retriever = retriever;
+        this.recommendationTable = recommendationTable;
+        this.foldedUsers = foldedUsers;
+    }
+    
+    /**
+     * Returns a copy of this snapshot that answers covered users from the
+     * given precomputed table, so both can be published in one swap.
+     */
+    public ModelSnapshot withRecommendationTable(RecommendationTable table) {
+        return new ModelSnapshot(mappings, factors, trainedAt, watermark, retriever, table, foldedUsers);
+    }
+    
+    /**
+     * Returns a copy of this snapshot that uses the given retriever.
+     */
+    public ModelSnapshot withRetriever(ItemRetriever itemRetriever) {
+        return new ModelSnapshot(mappings, factors, trainedAt, watermark, itemRetriever, recommendationTable, foldedUsers);
+    }
+    
+    public RecommendationTable getRecommendationTable() {
+        return recommendationTable;
+    }
+    
+    public MatrixBuilder getMappings() {
+        return mappings;
+    }
+    
+    public FactorModel getFactors() {
+        return factors;
+    }
+    
+    public LocalDateTime getTrainedAt() {
+        return trainedAt;
+    }
+    
+    /**
+     * Highest interaction id included in the training data.
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+    
+    /**
+     * The retrieval index built for this model, or null when every request
+     * scores the whole catalog exactly.
+     */
+    public ItemRetriever getRetriever() {
+        return retriever;
+    }
+    
+    /**
+     * Publishes a row solved online for the given user.
+     */
+    public void putFoldedUser(String userId, float[] userFactors) {
+        foldedUsers.put(userId, userFactors);
+    }
+    
+    public float[] getFoldedUser(String userId) {
+        return foldedUsers.get(userId);
+    }
+    
+    public int getNumFoldedUsers() {
+        return foldedUsers.size();
+    }
+    
+    /**
+     * Fills the selector with the user's best items, preferring a folded-in
+     * row over the trained one. Returns false if the user is unknown.
+     */
+    public boolean topItems(String userId, TopKSelector selector) {
+        float[] folded = foldedUsers.get(userId);
+        if (folded != null) {
+            retrieve(folded, 0, selector);
+            return true;
+        }
+        
+        int userIndex = mappings.getUserIndex(userId);
+        if (userIndex < 0) {
+            return false;
+        }
+        topItems(userIndex, selector);
+        return true;
+    }
+    
+    public void topItems(int userIndex, TopKSelector selector) {
+        if (recommendationTable != null && recommendationTable.covers(userIndex, selector.capacity())) {
+            recommendationTable.topItems(userIndex, selector);
+            return;
+        }
+        
+        retrieve(factors.getUserFactors(), userIndex * factors.getNumFactors(), selector);
+    }
+    
+    private void retrieve(float[] query, int offset, TopKSelector selector) {
+        if (retriever != null) {
+            retriever.topItems(factors, query, offset, selector);
+        } else {
+            factors.scoreAllItems(query, offset, selector);
+        }
+    }
+    
+    /**
+     * The user's row in the trained factors, or -1 if the user has none.
+     */
+    public int getUserIndex(String userId) {
+        return mappings.getUserIndex(userId);
+    }
+    
+    public long getItemId(int itemIndex) {
+        return mappings.getItemId(itemIndex);
+    }
+    
+    public int getNumUsers() {
+        return factors.getNumUsers();
+    }
+    
+    public int getNumItems() {
+        return factors.getNumItems();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.Arrays;
+
+/**
+ * Exact top-k retrieval over items in descending norm order, stopping once {@code |u| * |v|} cannot
+ * beat the k-th best score.
+ */
+public class NormSortedIndex implements ItemRetriever {
+    
+    // Guards the bound against float rounding in the dot products
+    private static final double BOUND_SLACK = 1e-6;
+    
+    private final int numItems;
+    private final int numFactors;
+    private final int[] order;
+    private final float[] norms;
+    private final float[] sortedVectors;
+    
+    private NormSortedIndex(int numItems, int numFactors, int[] order, float[] norms, float[] sortedVectors) {
+        this.numItems = numItems;
+        this.numFactors = numFactors;
+        this.order = order;
+        this.norms = norms;
+        this.sortedVectors = sortedVectors;
+    }
+    
+    public static NormSortedIndex build(FactorModel factors) {
+        int n = factors.getNumItems();
+        int k = factors.getNumFactors();
+        float[] vectors = factors.getItemFactors();
+        
+        // Non-negative floats order the same as their bit patterns, so norm
+        // and item index can be packed into one long and sorted as primitives.
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            for (int f = 0; f < k; f++) {
+                double v = vectors[i * k + f];
+                sum += v * v;
+            }
+            float norm = (float) Math.sqrt(sum);
+            keys[i] = ((long) Float.floatToIntBits(norm) << 32) | i;
+        }
+        Arrays.sort(keys);
+        
+        int[] order = new int[n];
+        float[] norms = new float[n];
+        float[] sortedVectors = new float[n * k];
+        for (int p = 0; p < n; p++) {
+            long key = keys[n - 1 - p];
+            int item = (int) key;
+            order[p] = item;
+            norms[p] = Float.intBitsToFloat((int) (key >>> 32));
+            System.arraycopy(vectors, item * k, sortedVectors, p * k, k);
+        }
+        return new NormSortedIndex(n, k, order, norms, sortedVectors);
+    }
+    
+    @Override
+    public void topItems(FactorModel factors, float[] query, int queryOffset, TopKSelector selector) {
+        double queryNorm = 0.0;
+        for (int f = 0; f < numFactors; f++) {
+            double q = query[queryOffset + f];
+            queryNorm += q * q;
+        }
+        queryNorm = Math.sqrt(queryNorm);
+        
+        int offset = 0;
+        for (int p = 0; p < numItems; p++) {
+            if (selector.isFull()) {
+                double bound = queryNorm * norms[p];
+                if (bound + BOUND_SLACK * Math.abs(bound) <= selector.threshold()) {
+                    break;
+                }
+            }
+            
+            double sum = 0.0;
+            for (int f = 0; f < numFactors; f++) {
+                sum += query[queryOffset + f] * sortedVectors[offset + f];
+            }
+            selector.offer(order[p], sum);
+            offset += numFactors;
+        }
+    }
+}
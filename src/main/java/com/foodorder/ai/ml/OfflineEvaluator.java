@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Trains one ALS configuration on a fold and scores its exact top-k recommendations against the test
+ * orders: precision, recall, NDCG and catalog coverage.
+ */
+public class OfflineEvaluator {
+    
+    private final int k;
+    
+    public OfflineEvaluator(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Evaluation cutoff k must be positive");
+        }
+        this.k = k;
+    }
+    
+    public EvaluationResult evaluate(AlsConfig config, EvaluationFold fold) {
+        AlsTrainer trainer = config.isImplicitFeedback() ? new ImplicitAlsTrainer(config) : new AlsTrainer(config);
+        long trainStart = System.nanoTime();
+        FactorModel factors = trainer.train(fold.getTrain());
+        long trainNanos = System.nanoTime() - trainStart;
+        
+        int[] testUsers = fold.getTestUsers();
+        int[][] relevantItems = fold.getRelevantItems();
+        int[][] rankings = new int[testUsers.length][];
+        TopKSelector selector = new TopKSelector(k);
+        long serveStart = System.nanoTime();
+        for (int t = 0; t < testUsers.length; t++) {
+            selector.reset();
+            factors.scoreAllItems(factors.getUserFactors(), testUsers[t] * factors.getNumFactors(), selector);
+            rankings[t] = selector.drainDescending();
+        }
+        long serveNanos = System.nanoTime() - serveStart;
+        
+        double precision = 0.0;
+        double recall = 0.0;
+        double ndcg = 0.0;
+        BitSet recommended = new BitSet(factors.getNumItems());
+        for (int t = 0; t < testUsers.length; t++) {
+            int[] relevant = relevantItems[t];
+            double dcg = 0.0;
+            int hits = 0;
+            for (int rank = 0; rank < rankings[t].length; rank++) {
+                int item = rankings[t][rank];
+                recommended.set(item);
+                if (Arrays.binarySearch(relevant, item) >= 0) {
+                    hits++;
+                    dcg += discount(rank);
+                }
+            }
+            double idealDcg = 0.0;
+            for (int rank = 0; rank < Math.min(k, relevant.length); rank++) {
+                idealDcg += discount(rank);
+            }
+            precision += (double) hits / k;
+            recall += relevant.length > 0 ? (double) hits / relevant.length : 0.0;
+            ndcg += idealDcg > 0 ? dcg / idealDcg : 0.0;
+        }
+        
+        int users = Math.max(1, testUsers.length);
+        EvaluationResult result = new EvaluationResult();
+        result.setImplicitFeedback(config.isImplicitFeedback());
+        result.setFactors(config.getNumFactors());
+        result.setRegularization(config.getRegularization());
+        result.setIterations(config.getIterations());
+        result.setFolds(1);
+        result.setPrecision(precision / users);
+        result.setRecall(recall / users);
+        result.setNdcg(ndcg / users);
+        result.setCoverage(factors.getNumItems() > 0 ? (double) recommended.cardinality() / factors.getNumItems() : 0.0);
+        result.setSweepsRun(trainer.getIterationsRun());
+        result.setTrainMillis(trainNanos / 1e6);
+        result.setServeMicrosPerUser(serveNanos / 1e3 / users);
+        return result;
+    }
+    
+    /**
+     * Averages the per-fold results of one configuration.
+     */
+    public static EvaluationResult average(List<EvaluationResult> folds) {
+        EvaluationResult first = folds.get(0);
+        EvaluationResult mean = new EvaluationResult();
+        mean.setImplicitFeedback(first.isImplicitFeedback());
+        mean.setFactors(first.getFactors());
+        mean.setRegularization(first.getRegularization());
+        mean.setIterations(first.getIterations());
+        mean.setFolds(folds.size());
+        for (EvaluationResult fold : folds) {
+            mean.setPrecision(mean.getPrecision() + fold.getPrecision() / folds.size());
+            mean.setRecall(mean.getRecall() + fold.getRecall() / folds.size());
+            mean.setNdcg(mean.getNdcg() + fold.getNdcg() / folds.size());
+            mean.setCoverage(mean.getCoverage() + fold.getCoverage() / folds.size());
+            mean.setSweepsRun(mean.getSweepsRun() + fold.getSweepsRun() / folds.size());
+            mean.setTrainMillis(mean.getTrainMillis() + fold.getTrainMillis() / folds.size());
+            mean.setServeMicrosPerUser(mean.getServeMicrosPerUser() + fold.getServeMicrosPerUser() / folds.size());
+        }
+        return mean;
+    }
+    
+    private static double discount(int rank) {
+        return 1.0 / (Math.log(rank + 2) / Math.log(2));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+
+/**
+ * Splits {@code [0, rows)} into contiguous chunks, a few per thread so that
+ * uneven rows still balance, and runs them on a pool, waiting for all of them.
+ */
+public final class ParallelRows {
+    
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    private ParallelRows() {
+    }
+    
+    /**
+     * A pool whose worker threads run at the given priority, so background
+     * computation yields to request threads.
+     */
+    public static ForkJoinPool newPool(int parallelism, int priority) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setPriority(priority);
+            return thread;
+        }, null, false);
+    }
+    
+    public static void run(ForkJoinPool pool, int parallelism, int rows, RowRange body) {
+        int chunks = Math.max(1, parallelism * CHUNKS_PER_THREAD);
+        int chunkSize = Math.max(1, (rows + chunks - 1) / chunks);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < rows; from += chunkSize) {
+            int start = from;
+            int end = Math.min(rows, from + chunkSize);
+            tasks.add(() -> {
+                body.run(start, end);
+                return null;
+            });
+        }
+        
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel computation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel computation failed", e.getCause());
+        }
+    }
+    
+    public interface RowRange {
+        void run(int from, int to);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Top-K item indices and scores of the first {@code numUsers} users, precomputed after training into
+ * flat arrays; row {@code u} starts at {@code u * k}.
+ */
+public class RecommendationTable {
+    
+    private final int k;
+    private final int numUsers;
+    private final int[] counts;
+    private final int[] itemIndices;
+    private final float[] scores;
+    
+    private RecommendationTable(int k, int numUsers, int[] counts, int[] itemIndices, float[] scores) {
+        this.k = k;
+        this.numUsers = numUsers;
+        this.counts = counts;
+        this.itemIndices = itemIndices;
+        this.scores = scores;
+    }
+    
+    public static RecommendationTable build(ModelSnapshot snapshot, int k, int maxUsers, int threads, int priority) {
+        int numUsers = Math.min(snapshot.getNumUsers(), maxUsers);
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int cells = Math.multiplyExact(numUsers, k);
+        int[] counts = new int[numUsers];
+        int[] itemIndices = new int[cells];
+        float[] scores = new float[cells];
+        
+        ForkJoinPool pool = ParallelRows.newPool(parallelism, priority);
+        try {
+            ParallelRows.run(pool, parallelism, numUsers, (from, to) -> {
+                TopKSelector selector = new TopKSelector(k);
+                double[] rowScores = new double[k];
+                for (int u = from; u < to; u++) {
+                    selector.reset();
+                    snapshot.topItems(u, selector);
+                    int n = selector.size();
+                    int[] top = selector.drainDescending(rowScores);
+                    System.arraycopy(top, 0, itemIndices, u * k, n);
+                    for (int p = 0; p < n; p++) {
+                        scores[u * k + p] = (float) rowScores[p];
+                    }
+                    counts[u] = n;
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        
+        return new RecommendationTable(k, numUsers, counts, itemIndices, scores);
+    }
+    
+    /**
+     * Whether a table over {@code numUsers} users fits in Java arrays.
+     */
+    public static boolean fitsInArrays(long numUsers, int k) {
+        return numUsers * k <= Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Heap needed for a table over {@code numUsers} users.
+     */
+    public static long estimateBytes(long numUsers, int k) {
+        return numUsers * (4L + 8L * k);
+    }
+    
+    public int getK() {
+        return k;
+    }
+    
+    public int getNumUsers() {
+        return numUsers;
+    }
+    
+    public boolean covers(int userIndex, int topN) {
+        return userIndex < numUsers && topN <= k;
+    }
+    
+    /**
+     * Offers the stored row of {@code userIndex} to {@code selector}. Only
+     * meaningful when {@link #covers(int, int)} holds for the selector size.
+     */
+    public void topItems(int userIndex, TopKSelector selector) {
+        int offset = userIndex * k;
+        for (int p = 0; p < counts[userIndex]; p++) {
+            selector.offer(itemIndices[offset + p], scores[offset + p]);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+/**
+ * User x item ratings stored only where observed, as CSR for user sweeps and CSC for item sweeps.
+ */
+public class SparseRatingMatrix {
+    
+    private final int numRows;
+    private final int numCols;
+    
+    private final int[] rowPtr;
+    private final int[] colIdx;
+    private final float[] rowValues;
+    
+    private final int[] colPtr;
+    private final int[] rowIdx;
+    private final float[] colValues;
+    
+    private SparseRatingMatrix(int numRows, int numCols,
+                               int[] rowPtr, int[] colIdx, float[] rowValues) {
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowPtr = rowPtr;
+        this.colIdx = colIdx;
+        this.rowValues = rowValues;
+        
+        int nnz = rowPtr[numRows];
+        this.colPtr = new int[numCols + 1];
+        this.rowIdx = new int[nnz];
+        this.colValues = new float[nnz];
+        
+        for (int p = 0; p < nnz; p++) {
+            colPtr[colIdx[p] + 1]++;
+        }
+        for (int i = 0; i < numCols; i++) {
+            colPtr[i + 1] += colPtr[i];
+        }
+        int[] next = new int[numCols];
+        System.arraycopy(colPtr, 0, next, 0, numCols);
+        for (int u = 0; u < numRows; u++) {
+            for (int p = rowPtr[u]; p < rowPtr[u + 1]; p++) {
+                int q = next[colIdx[p]]++;
+                rowIdx[q] = u;
+                colValues[q] = rowValues[p];
+            }
+        }
+    }
+    
+    /**
+     * Builds the matrix from unsorted triplets; the last duplicate wins and non-positive cells are dropped.
+     */
+    public static SparseRatingMatrix fromTriplets(int numRows, int numCols,
+                                                  int[] rows, int[] cols, float[] values, int count) {
+        return fromTriplets(numRows, numCols, rows, cols, values, count, false);
+    }
+    
+    /**
+     * Like {@link #fromTriplets(int, int, int[], int[], float[], int)}, optionally summing duplicates.
+     */
+    public static SparseRatingMatrix fromTriplets(int numRows, int numCols, int[] rows, int[] cols,
+                                                  float[] values, int count, boolean sumDuplicates) {
+        // Two stable counting sorts (by column, then by row) leave every row
+        // sorted by column with duplicates still in insertion order.
+        int[] byCol = countingSort(cols, identity(count), numCols);
+        int[] order = countingSort(rows, byCol, numRows);
+        
+        int[] rowPtr = new int[numRows + 1];
+        int[] colIdx = new int[count];
+        float[] rowValues = new float[count];
+        int nnz = 0;
+        
+        float cell = 0f;
+        for (int p = 0; p < count; p++) {
+            int t = order[p];
+            cell = sumDuplicates ? cell + values[t] : values[t];
+            boolean lastForCell = p + 1 == count
+                || rows[order[p + 1]] != rows[t]
+                || cols[order[p + 1]] != cols[t];
+            if (!lastForCell) {
+                continue;
+            }
+            if (cell > 0) {
+                colIdx[nnz] = cols[t];
+                rowValues[nnz] = cell;
+                rowPtr[rows[t] + 1]++;
+                nnz++;
+            }
+            cell = 0f;
+        }
+        for (int u = 0; u < numRows; u++) {
+            rowPtr[u + 1] += rowPtr[u];
+        }
+        
+        if (nnz < count) {
+            int[] trimmedCols = new int[nnz];
+            float[] trimmedValues = new float[nnz];
+            System.arraycopy(colIdx, 0, trimmedCols, 0, nnz);
+            System.arraycopy(rowValues, 0, trimmedValues, 0, nnz);
+            colIdx = trimmedCols;
+            rowValues = trimmedValues;
+        }
+        
+        return new SparseRatingMatrix(numRows, numCols, rowPtr, colIdx, rowValues);
+    }
+    
+    private static int[] identity(int count) {
+        int[] order = new int[count];
+        for (int p = 0; p < count; p++) {
+            order[p] = p;
+        }
+        return order;
+    }
+    
+    private static int[] countingSort(int[] keys, int[] order, int numKeys) {
+        int[] start = new int[numKeys + 1];
+        for (int t : order) {
+            start[keys[t] + 1]++;
+        }
+        for (int k = 0; k < numKeys; k++) {
+            start[k + 1] += start[k];
+        }
+        int[] sorted = new int[order.length];
+        for (int t : order) {
+            sorted[start[keys[t]]++] = t;
+        }
+        return sorted;
+    }
+    
+    public int nrow() {
+        return numRows;
+    }
+    
+    public int ncol() {
+        return numCols;
+    }
+    
+    public int nnz() {
+        return rowPtr[numRows];
+    }
+    
+    public float get(int row, int col) {
+        for (int p = rowPtr[row]; p < rowPtr[row + 1]; p++) {
+            if (colIdx[p] == col) {
+                return rowValues[p];
+            }
+            if (colIdx[p] > col) {
+                break;
+            }
+        }
+        return 0f;
+    }
+    
+    // The accessors below expose the internal arrays without copying so the
+    // training loops can iterate them directly. Callers must not modify them.
+    
+    public int[] getRowPointers() {
+        return rowPtr;
+    }
+    
+    public int[] getColumnIndices() {
+        return colIdx;
+    }
+    
+    public float[] getRowValues() {
+        return rowValues;
+    }
+    
+    public int[] getColumnPointers() {
+        return colPtr;
+    }
+    
+    public int[] getRowIndices() {
+        return rowIdx;
+    }
+    
+    public float[] getColumnValues() {
+        return colValues;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dense indices for string ids in first-seen order, keeping a single instance of each id.
+ * Not thread-safe while ids are being added.
+ */
+class StringIdDictionary {
+    
+    private String[] ids;
+    private int[] hashes;
+    private int[] slots;
+    private int size;
+    
+    StringIdDictionary() {
+        this(LongIdDictionary.tableSize(0) / 2);
+    }
+    
+    StringIdDictionary(int expected) {
+        ids = new String[Math.max(expected, 1)];
+        hashes = new int[ids.length];
+        slots = new int[LongIdDictionary.tableSize(expected)];
+    }
+    
+    StringIdDictionary(String[] ids) {
+        this(ids.length);
+        for (String id : ids) {
+            add(id);
+        }
+    }
+    
+    /**
+     * The id's index, assigning the next one if the id is new.
+     */
+    int add(String id) {
+        int hash = LongIdDictionary.mix(id.hashCode());
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == hash && ids[index].equals(id)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        ids[size] = id;
+        hashes[size] = hash;
+        slots[slot] = ++size;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return size - 1;
+    }
+    
+    /**
+     * The id's index, or -1 if it has none.
+     */
+    int indexOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int hash = LongIdDictionary.mix(id.hashCode());
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == hash && ids[index].equals(id)) {
+                return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    String idAt(int index) {
+        return ids[index];
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Writes {@code size + 1} end offsets starting at 0, then the UTF-8
+     * bytes of all ids back to back.
+     */
+    void writeTo(LittleEndianWriter writer) throws IOException {
+        byte[][] encoded = new byte[size][];
+        long offset = 0;
+        writer.putInt(0);
+        for (int i = 0; i < size; i++) {
+            encoded[i] = ids[i].getBytes(StandardCharsets.UTF_8);
+            offset += encoded[i].length;
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("User ids take more than 2 GB");
+            }
+            writer.putInt((int) offset);
+        }
+        for (byte[] id : encoded) {
+            writer.putBytes(id);
+        }
+    }
+    
+    /**
+     * Reads {@code count} ids written by {@link #writeTo}, leaving the
+     * buffer positioned after them.
+     */
+    static StringIdDictionary readFrom(ByteBuffer buffer, int count) {
+        int[] offsets = new int[count + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+        byte[] bytes = new byte[offsets[count]];
+        buffer.get(bytes);
+        
+        StringIdDictionary dictionary = new StringIdDictionary(count);
+        for (int i = 0; i < count; i++) {
+            dictionary.add(new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8));
+        }
+        return dictionary;
+    }
+    
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hashes[index] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.ml;
+
+/**
+ * The {@code k} highest scoring indices seen so far, in a binary min-heap over primitive arrays.
+ */
+public class TopKSelector {
+    
+    private final int[] indices;
+    private final double[] scores;
+    private int size;
+    
+    public TopKSelector(int k) {
+        this.indices = new int[Math.max(0, k)];
+        this.scores = new double[Math.max(0, k)];
+    }
+    
+    public int capacity() {
+        return indices.length;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isFull() {
+        return size == indices.length;
+    }
+    
+    /**
+     * Smallest score currently kept; a candidate must beat it to get in
+     * once the selector is full.
+     */
+    public double threshold() {
+        return isFull() && size > 0 ? scores[0] : Double.NEGATIVE_INFINITY;
+    }
+    
+    public void reset() {
+        size = 0;
+    }
+    
+    public void offer(int index, double score) {
+        if (size < indices.length) {
+            indices[size] = index;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && score > scores[0]) {
+            indices[0] = index;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+    
+    /**
+     * Drains the heap and returns the kept indices ordered by descending
+     * score. The selector is empty afterwards.
+     */
+    public int[] drainDescending() {
+        int n = size;
+        int[] result = new int[n];
+        for (int p = n - 1; p >= 0; p--) {
+            result[p] = indices[0];
+            size--;
+            if (size > 0) {
+                indices[0] = indices[size];
+                scores[0] = scores[size];
+                siftDown(0, size);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Like {@link #drainDescending()} but also copies the scores into
+     * {@code scoresOut}, which must hold at least {@link #size()} entries.
+     */
+    public int[] drainDescending(double[] scoresOut) {
+        int n = size;
+        int[] result = new int[n];
+        for (int p = n - 1; p >= 0; p--) {
+            result[p] = indices[0];
+            scoresOut[p] = scores[0];
+            size--;
+            if (size > 0) {
+                indices[0] = indices[size];
+                scores[0] = scores[size];
+                siftDown(0, size);
+            }
+        }
+        return result;
+    }
+    
+    private void siftUp(int p) {
+        int index = indices[p];
+        double score = scores[p];
+        while (p > 0) {
+            int parent = (p - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            indices[p] = indices[parent];
+            scores[p] = scores[parent];
+            p = parent;
+        }
+        indices[p] = index;
+        scores[p] = score;
+    }
+    
+    private void siftDown(int p, int n) {
+        int index = indices[p];
+        double score = scores[p];
+        while (true) {
+            int child = 2 * p + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (scores[child] >= score) {
+                break;
+            }
+            indices[p] = indices[child];
+            scores[p] = scores[child];
+            p = child;
+        }
+        indices[p] = index;
+        scores[p] = score;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.ml;
+
+/**
+ * Live status of the current or last training run, written by the training thread only.
+ */
+public class TrainingProgress {
+    
+    public enum State {
+        IDLE, INGESTING, TRAINING, INDEXING, COMPLETED, CANCELLED, FAILED, REFUSED
+    }
+    
+    private volatile State state = State.IDLE;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile long rowsIngested;
+    private volatile int sweep;
+    private volatile int maxSweeps;
+    private volatile double loss = Double.NaN;
+    private volatile long estimatedBytes;
+    private volatile String message;
+    private volatile boolean cancelRequested;
+    
+    public void start() {
+        startedAt = System.currentTimeMillis();
+        finishedAt = 0L;
+        rowsIngested = 0L;
+        sweep = 0;
+        maxSweeps = 0;
+        loss = Double.NaN;
+        estimatedBytes = 0L;
+        message = null;
+        cancelRequested = false;
+        state = State.INGESTING;
+    }
+    
+    public void finish(State finalState, String finalMessage) {
+        message = finalMessage;
+        finishedAt = System.currentTimeMillis();
+        state = finalState;
+    }
+    
+    public boolean isRunning() {
+        State current = state;
+        return current == State.INGESTING || current == State.TRAINING || current == State.INDEXING;
+    }
+    
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+    
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public void setState(State state) {
+        this.state = state;
+    }
+    
+    public long getElapsedMillis() {
+        if (startedAt == 0L) {
+            return 0L;
+        }
+        long end = finishedAt != 0L ? finishedAt : System.currentTimeMillis();
+        return end - startedAt;
+    }
+    
+    public long getRowsIngested() {
+        return rowsIngested;
+    }
+    
+    public void setRowsIngested(long rowsIngested) {
+        this.rowsIngested = rowsIngested;
+    }
+    
+    public int getSweep() {
+        return sweep;
+    }
+    
+    public int getMaxSweeps() {
+        return maxSweeps;
+    }
+    
+    public void setMaxSweeps(int maxSweeps) {
+        this.maxSweeps = maxSweeps;
+    }
+    
+    /**
+     * Training loss after the last completed sweep, or null if loss tracking
+     * is off or no sweep has finished.
+     */
+    public Double getLoss() {
+        double current = loss;
+        return Double.isNaN(current) ? null : current;
+    }
+    
+    public void recordSweep(int sweep, double loss) {
+        this.loss = loss;
+        this.sweep = sweep;
+    }
+    
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+    
+    public void setEstimatedBytes(long estimatedBytes) {
+        this.estimatedBytes = estimatedBytes;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+}
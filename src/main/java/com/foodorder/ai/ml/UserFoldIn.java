@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.ml;
+
+import java.util.Map;
+
+/**
+ * Solves one user's factor row against the frozen item factors of a trained snapshot.
+ */
+public class UserFoldIn {
+    
+    private final ModelSnapshot snapshot;
+    private final AlsTrainer trainer;
+    
+    public UserFoldIn(ModelSnapshot snapshot, AlsConfig config) {
+        this.snapshot = snapshot;
+        this.trainer = config.isImplicitFeedback()
+            ? new ImplicitAlsTrainer(config)
+            : new AlsTrainer(config);
+        
+        FactorModel factors = snapshot.getFactors();
+        trainer.prepareFoldIn(factors.getItemFactors(), factors.getNumItems());
+    }
+    
+    public ModelSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * The user's factor row from their ratings by food item id, or null if none of the items is known.
+     */
+    public float[] solve(String userId, Map<Long, Double> ratings) {
+        int[] items = new int[ratings.size()];
+        float[] values = new float[ratings.size()];
+        int count = 0;
+        for (Map.Entry<Long, Double> entry : ratings.entrySet()) {
+            int itemIndex = entry.getKey() != null ? snapshot.getMappings().getItemIndex(entry.getKey()) : -1;
+            if (itemIndex >= 0 && entry.getValue() != null && entry.getValue() > 0) {
+                items[count] = itemIndex;
+                values[count] = entry.getValue().floatValue();
+                count++;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        
+        FactorModel factors = snapshot.getFactors();
+        int numFactors = factors.getNumFactors();
+        float[] row = new float[numFactors];
+        float[] folded = snapshot.getFoldedUser(userId);
+        int userIndex = snapshot.getUserIndex(userId);
+        if (folded != null) {
+            System.arraycopy(folded, 0, row, 0, numFactors);
+        } else if (userIndex >= 0) {
+            System.arraycopy(factors.getUserFactors(), userIndex * numFactors, row, 0, numFactors);
+        }
+        
+        trainer.foldIn(items, values, count, factors.getItemFactors(), row);
+        return row;
+    }
+}
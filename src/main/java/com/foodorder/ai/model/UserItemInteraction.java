@@ -32,7 +32,7 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_item_interactions")
+@Table(name = "user_item_interactions", indexes = @Index(name = "idx_interactions_user_id", columnList = "user_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
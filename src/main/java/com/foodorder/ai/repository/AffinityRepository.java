@@ -0,0 +1,57 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.repository;
+
+import com.foodorder.ai.model.UserItemAffinity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AffinityRepository extends JpaRepository<UserItemAffinity, Long> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM UserItemAffinity a WHERE a.userId = :userId AND a.foodItemId = :foodItemId")
+    Optional<UserItemAffinity> findForUpdate(String userId, Long foodItemId);
+    
+    List<UserItemAffinity> findByUserId(String userId);
+    
+    /**
+     * Keyset page of affinities with id greater than {@code afterId}, in id order.
+     */
+    @Query("SELECT a FROM UserItemAffinity a WHERE a.id > :afterId ORDER BY a.id")
+    List<UserItemAffinity> findPageAfter(Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(DISTINCT a.userId) FROM UserItemAffinity a")
+    long countDistinctUsers();
+    
+    @Query("SELECT COUNT(DISTINCT a.foodItemId) FROM UserItemAffinity a")
+    long countDistinctItems();
+}
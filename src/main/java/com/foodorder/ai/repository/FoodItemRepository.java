@@ -35,6 +35,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class FoodItemRepository {
     private final Map<Long, FoodItem> foodItems = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    private final AtomicLong version = new AtomicLong();
 
     public FoodItemRepository() {
         initializeDefaultItems();
@@ -58,6 +59,7 @@ public class FoodItemRepository {
             foodItem.setId(idGenerator.getAndIncrement());
         }
         foodItems.put(foodItem.getId(), foodItem);
+        version.incrementAndGet();
         return foodItem;
     }
 
@@ -71,6 +73,15 @@ public class FoodItemRepository {
 
     public void deleteById(Long id) {
         foodItems.remove(id);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Incremented by every save and delete, so derived indexes can tell
+     * when they are stale. Stock updates do not count.
+     */
+    public long getVersion() {
+        return version.get();
     }
 
     public boolean updateQuantity(Long id, Integer newQuantity) {
@@ -24,11 +24,15 @@
 
 package com.foodorder.ai.repository;
 
+import com.foodorder.ai.dto.InteractionRow;
+import com.foodorder.ai.dto.UserInteractionCount;
 import com.foodorder.ai.model.UserItemInteraction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -46,4 +50,42 @@ public interface InteractionRepository extends JpaRepository<UserItemInteraction
     
     @Query("SELECT DISTINCT i.foodItemId FROM UserItemInteraction i")
     List<Long> findAllDistinctFoodItemIds();
+    
+    @Query("SELECT MAX(i.id) FROM UserItemInteraction i")
+    Long findMaxId();
+    
+    @Query("SELECT DISTINCT i.userId FROM UserItemInteraction i WHERE i.id > :id")
+    List<String> findDistinctUserIdsWithIdGreaterThan(Long id);
+    
+    @Query("SELECT DISTINCT i.userId FROM UserItemInteraction i WHERE i.timestamp >= :since")
+    List<String> findDistinctUserIdsSince(LocalDateTime since);
+    
+    /**
+     * Keyset page of interactions with id greater than {@code afterId}, in id
+     * order. Pass {@code PageRequest.of(0, size)} and the last id of the
+     * previous page to walk the whole table.
+     */
+    @Query("SELECT new com.foodorder.ai.dto.InteractionRow(i.id, i.userId, i.foodItemId, i.interactionType, i.rating, i.quantity, i.timestamp) " +
+           "FROM UserItemInteraction i WHERE i.id > :afterId ORDER BY i.id")
+    List<InteractionRow> findRowsAfter(Long afterId, Pageable pageable);
+    
+    /**
+     * Keyset page of interactions after {@code (afterUserId, afterId)} in
+     * user then id order, so each user's interactions arrive together. Start
+     * from {@code ("", 0)} and pass the last row of the previous page.
+     */
+    @Query("SELECT new com.foodorder.ai.dto.InteractionRow(i.id, i.userId, i.foodItemId, i.interactionType, i.rating, i.quantity, i.timestamp) " +
+           "FROM UserItemInteraction i WHERE i.userId > :afterUserId OR (i.userId = :afterUserId AND i.id > :afterId) " +
+           "ORDER BY i.userId, i.id")
+    List<InteractionRow> findRowsByUserAfter(String afterUserId, Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(DISTINCT i.userId) FROM UserItemInteraction i")
+    long countDistinctUsers();
+    
+    @Query("SELECT COUNT(DISTINCT i.foodItemId) FROM UserItemInteraction i")
+    long countDistinctItems();
+    
+    @Query("SELECT new com.foodorder.ai.dto.UserInteractionCount(i.userId, i.interactionType, COUNT(i)) " +
+           "FROM UserItemInteraction i GROUP BY i.userId, i.interactionType")
+    List<UserInteractionCount> countByUserAndType();
 }
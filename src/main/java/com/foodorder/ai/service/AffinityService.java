@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.dto.InteractionRow;
+import com.foodorder.ai.model.UserItemAffinity;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+import com.foodorder.ai.repository.AffinityRepository;
+import com.foodorder.ai.repository.InteractionRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Maintains the user-item affinity table: one weighted score per user and
+ * food item, so training reads distinct pairs instead of raw event history.
+ *
+ * Scores decay exponentially with a configurable half-life. A stored score
+ * is valid as of its {@code updatedAt}; each write first decays it to the
+ * time of the new interaction and adds the new weight, and readers decay it
+ * to the current time with {@link #currentScore}. Nothing is ever
+ * recomputed from full history.
+ */
+@Service
+public class AffinityService implements SmartInitializingSingleton {
+    
+    @Autowired
+    private AffinityRepository affinityRepository;
+    
+    @Autowired
+    private InteractionRepository interactionRepository;
+    
+    @Value("${ml.affinity.weight.order:1.0}")
+    private double orderWeight;
+    
+    @Value("${ml.affinity.weight.view:0.5}")
+    private double viewWeight;
+    
+    @Value("${ml.affinity.weight.rating:1.0}")
+    private double ratingWeight;
+    
+    @Value("${ml.affinity.half-life-days:90}")
+    private double halfLifeDays;
+    
+    @Value("${ml.ingest.page-size:10000}")
+    private int pageSize;
+    
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+    
+    /**
+     * Backfills once every bean, including the SQL data initializer, is
+     * ready but before the web server accepts requests, so seeded history
+     * is not skipped because an incremental write got there first.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        int backfilled = backfillIfEmpty();
+        if (backfilled > 0) {
+            System.out.println("Backfilled " + backfilled + " user-item affinities from interaction history");
+        }
+    }
+    
+    /**
+     * Adds one interaction's weight to the user's affinity for the item. The
+     * row is locked for the read-modify-write so concurrent interactions for
+     * the same pair are not lost.
+     */
+    @Transactional
+    public void addInteraction(String userId, Long foodItemId, InteractionType type, Integer quantity,
+                               Double rating, LocalDateTime timestamp) {
+        double weight = weight(type, quantity, rating);
+        if (weight == 0.0) {
+            return;
+        }
+        
+        LocalDateTime at = timestamp != null ? timestamp : LocalDateTime.now();
+        UserItemAffinity affinity = affinityRepository.findForUpdate(userId, foodItemId)
+            .orElseGet(() -> new UserItemAffinity(null, userId, foodItemId, 0.0, at));
+        
+        // Late events are decayed to the stored time instead of rewinding it
+        LocalDateTime reference = at.isAfter(affinity.getUpdatedAt()) ? at : affinity.getUpdatedAt();
+        affinity.setScore(decay(affinity.getScore(), affinity.getUpdatedAt(), reference) + decay(weight, at, reference));
+        affinity.setUpdatedAt(reference);
+        affinityRepository.save(affinity);
+    }
+    
+    /**
+     * The affinity's score decayed to {@code now}.
+     */
+    public double currentScore(UserItemAffinity affinity, LocalDateTime now) {
+        return decay(affinity.getScore(), affinity.getUpdatedAt(), now);
+    }
+    
+    /**
+     * One interaction's contribution to an affinity score, decayed from
+     * {@code at} to {@code now}. Used by bulk loaders that aggregate
+     * affinities themselves.
+     */
+    public double decayedWeight(InteractionType type, Integer quantity, Double rating,
+                                LocalDateTime at, LocalDateTime now) {
+        return decay(weight(type, quantity, rating), at, now);
+    }
+    
+    /**
+     * Same as {@link #decayedWeight(InteractionType, Integer, Double, LocalDateTime, LocalDateTime)}
+     * for callers that keep quantities, ratings and epoch-millisecond times
+     * in primitive columns.
+     */
+    public double decayedWeight(InteractionType type, int quantity, double rating, long atMillis, long nowMillis) {
+        return decay(weight(type, quantity, rating), nowMillis - atMillis);
+    }
+    
+    /**
+     * Fills an empty affinity table from the interaction history. Returns
+     * the number of pairs written, or 0 if the table already had rows.
+     *
+     * Interactions are streamed in keyset pages ordered by user, and each
+     * user's decayed scores are queued for writing as soon as the next user
+     * starts, so memory is bounded by one user's items plus one batch. Each
+     * batch is saved in its own transaction.
+     */
+    public synchronized int backfillIfEmpty() {
+        if (affinityRepository.count() > 0) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Double> userScores = new HashMap<>();
+        List<UserItemAffinity> batch = new ArrayList<>(pageSize);
+        int written = 0;
+        String currentUser = null;
+        String lastUserId = "";
+        long lastId = 0L;
+        List<InteractionRow> page;
+        do {
+            page = interactionRepository.findRowsByUserAfter(lastUserId, lastId, PageRequest.of(0, pageSize));
+            for (InteractionRow row : page) {
+                if (!row.getUserId().equals(currentUser)) {
+                    written += userDone(currentUser, userScores, now, batch);
+                    currentUser = row.getUserId();
+                }
+                double weight = weight(row.getInteractionType(), row.getQuantity(), row.getRating());
+                if (weight != 0.0) {
+                    userScores.merge(row.getFoodItemId(), decay(weight, row.getTimestamp(), now), Double::sum);
+                }
+            }
+            if (!page.isEmpty()) {
+                InteractionRow last = page.get(page.size() - 1);
+                lastUserId = last.getUserId();
+                lastId = last.getId();
+            }
+        } while (page.size() == pageSize);
+        written += userDone(currentUser, userScores, now, batch);
+        return written + flush(batch);
+    }
+    
+    // Queues one user's positive scores and saves the batch once it is full
+    private int userDone(String userId, Map<Long, Double> userScores, LocalDateTime now,
+                         List<UserItemAffinity> batch) {
+        userScores.forEach((itemId, score) -> {
+            if (score > 0) {
+                batch.add(new UserItemAffinity(null, userId, itemId, score, now));
+            }
+        });
+        userScores.clear();
+        return batch.size() >= pageSize ? flush(batch) : 0;
+    }
+    
+    private int flush(List<UserItemAffinity> batch) {
+        affinityRepository.saveAll(batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+    
+    private double weight(InteractionType type, Integer quantity, Double rating) {
+        return weight(type, quantity != null ? quantity : 1, rating != null ? rating : 0.0);
+    }
+    
+    private double weight(InteractionType type, int quantity, double rating) {
+        if (type == null) {
+            return 0.0;
+        }
+        switch (type) {
+            case ORDER:
+                return orderWeight * quantity;
+            case VIEW:
+                return viewWeight;
+            case RATING:
+                return ratingWeight * rating;
+            default:
+                return 0.0;
+        }
+    }
+    
+    // score * 2^(-elapsed / half-life); no decay when the half-life is not positive
+    private double decay(double score, LocalDateTime from, LocalDateTime to) {
+        if (halfLifeDays <= 0 || from == null || !to.isAfter(from)) {
+            return score;
+        }
+        return decay(score, Duration.between(from, to).toMillis());
+    }
+    
+    private double decay(double score, long elapsedMillis) {
+        if (halfLifeDays <= 0 || elapsedMillis <= 0) {
+            return score;
+        }
+        return score * Math.pow(0.5, elapsedMillis / MILLIS_PER_DAY / halfLifeDays);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.foodorder.ai.dto.BatchRecommendation;
+import com.foodorder.ai.dto.BatchRecommendationRequest;
+import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.repository.FoodItemRepository;
+import com.foodorder.ai.repository.InteractionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recommendations for many users in one call, written as newline-delimited
+ * JSON. Users are handled in blocks: each block is scored by the model in
+ * one pass, users it cannot serve fall back to co-occurrence and then to
+ * trending items, and the block is written and flushed before the next one
+ * is started, so memory does not grow with the number of users. Never
+ * calls an LLM.
+ */
+@Service
+public class BatchRecommendationService {
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    @Autowired
+    private InteractionRepository interactionRepository;
+    
+    @Autowired
+    private MLRecommendationService mlService;
+    
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${ml.batch.block-size:1024}")
+    private int blockSize;
+    
+    @Value("${ml.batch.max-top-n:50}")
+    private int maxTopN;
+    
+    @Value("${ml.batch.active-within-days:30}")
+    private int defaultActiveWithinDays;
+    
+    private static final int DEFAULT_TOP_N = 3;
+    
+    /**
+     * The distinct users a request asks for, in request order. Throws
+     * IllegalArgumentException for an invalid top N or segment.
+     */
+    public List<String> resolveUsers(BatchRecommendationRequest request) {
+        topN(request);
+        if (request.getUserIds() != null && !request.getUserIds().isEmpty()) {
+            List<String> userIds = new ArrayList<>(new LinkedHashSet<>(request.getUserIds()));
+            userIds.remove(null);
+            return userIds;
+        }
+        
+        int days = request.getActiveWithinDays() != null ? request.getActiveWithinDays() : defaultActiveWithinDays;
+        if (days <= 0) {
+            throw new IllegalArgumentException("activeWithinDays must be positive");
+        }
+        return interactionRepository.findDistinctUserIdsSince(LocalDateTime.now().minusDays(days));
+    }
+    
+    public int topN(BatchRecommendationRequest request) {
+        int topN = request.getTopN() != null ? request.getTopN() : DEFAULT_TOP_N;
+        if (topN <= 0 || topN > maxTopN) {
+            throw new IllegalArgumentException("topN must be between 1 and " + maxTopN);
+        }
+        return topN;
+    }
+    
+    public void streamRecommendations(List<String> userIds, int topN, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<Long, FoodItem> catalog = new HashMap<>();
+        for (FoodItem item : foodItemRepository.findAll()) {
+            catalog.put(item.getId(), item);
+        }
+        
+        ObjectWriter writer = objectMapper.writerFor(BatchRecommendation.class);
+        OutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        int served = 0;
+        for (int from = 0; from < userIds.size(); from += blockSize) {
+            List<String> block = userIds.subList(from, Math.min(userIds.size(), from + blockSize));
+            long[][] mlIds = mlService.recommendBatch(block, topN);
+            for (int p = 0; p < block.size(); p++) {
+                BatchRecommendation recommendation = recommend(block.get(p), mlIds[p], topN, catalog);
+                if (!recommendation.getRecommendedItems().isEmpty()) {
+                    served++;
+                }
+                buffered.write(writer.writeValueAsBytes(recommendation));
+                buffered.write('\n');
+            }
+            buffered.flush();
+        }
+        
+        System.out.println("Batch recommendations for " + userIds.size() + " users (" + served + " served) in " +
+                         (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    private BatchRecommendation recommend(String userId, long[] mlIds, int topN, Map<Long, FoodItem> catalog) {
+        List<FoodItem> items = resolve(mlIds, catalog);
+        if (!items.isEmpty()) {
+            return new BatchRecommendation(userId, "ml", items);
+        }
+        
+        items = resolve(coOccurrenceService.recommendIds(userId, topN), catalog);
+        if (!items.isEmpty()) {
+            return new BatchRecommendation(userId, "co-occurrence", items);
+        }
+        
+        items = new ArrayList<>();
+        for (Long itemId : trendingService.popularNowIds(userId, null, topN, topN)) {
+            FoodItem item = catalog.get(itemId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return new BatchRecommendation(userId, items.isEmpty() ? "none" : "trending", items);
+    }
+    
+    private List<FoodItem> resolve(long[] itemIds, Map<Long, FoodItem> catalog) {
+        List<FoodItem> items = new ArrayList<>();
+        if (itemIds != null) {
+            for (long itemId : itemIds) {
+                FoodItem item = catalog.get(itemId);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+        }
+        return items;
+    }
+}
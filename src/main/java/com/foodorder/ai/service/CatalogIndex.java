@@ -0,0 +1,327 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.model.FoodItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable bitset index over a catalog snapshot for preference filters.
+ * Bit {@code p} of every set stands for the item at position {@code p} of
+ * {@link #getItems()}: one set each for vegetarian and vegan items, one per
+ * allergen and per category (both lowercased), and prefix sets of the
+ * cheapest items at fixed price-rank breakpoints for budget bounds.
+ *
+ * A filter starts from {@link #all()} and narrows it in place with the
+ * {@code retain}/{@code remove} methods, so each constraint is one pass of
+ * word-wide ANDs instead of a scan over item fields.
+ */
+public class CatalogIndex {
+
+    private final long version;
+    private final List<FoodItem> items;
+    // Item ids in ascending order and the catalog position of each
+    private final long[] sortedIds;
+    private final int[] idPositions;
+    private final long[] all;
+    private final long[] vegetarian;
+    private final long[] vegan;
+    private final long[] unpriced;
+    private final Map<String, long[]> allergens = new HashMap<>();
+    private final Map<String, long[]> categories = new HashMap<>();
+    private final int[] byPrice;
+    private final double[] sortedPrices;
+    // cheapest[b] holds the items of price rank below b * bucketSize
+    private final int bucketSize;
+    private final long[][] cheapest;
+
+    // At most this many breakpoints, so the prefix sets stay within 64 copies of one set
+    private static final int MAX_PRICE_BUCKETS = 64;
+
+    public CatalogIndex(List<FoodItem> catalog, long version) {
+        this.version = version;
+        this.items = Collections.unmodifiableList(new ArrayList<>(catalog));
+        int n = items.size();
+        int words = (n + 63) >>> 6;
+        all = new long[words];
+        vegetarian = new long[words];
+        vegan = new long[words];
+        unpriced = new long[words];
+
+        int priced = 0;
+        for (int p = 0; p < n; p++) {
+            FoodItem item = items.get(p);
+            set(all, p);
+            if (item.isVegetarian()) {
+                set(vegetarian, p);
+            }
+            if (item.isVegan()) {
+                set(vegan, p);
+            }
+            if (item.getAllergens() != null) {
+                for (String allergen : item.getAllergens()) {
+                    if (allergen != null) {
+                        set(allergens.computeIfAbsent(allergen.toLowerCase(Locale.ROOT), key -> new long[words]), p);
+                    }
+                }
+            }
+            if (item.getCategory() != null) {
+                set(categories.computeIfAbsent(item.getCategory().toLowerCase(Locale.ROOT), key -> new long[words]), p);
+            }
+            if (item.getPrice() != null) {
+                priced++;
+            } else {
+                set(unpriced, p);
+            }
+        }
+
+        int identified = 0;
+        for (FoodItem item : items) {
+            if (item.getId() != null) {
+                identified++;
+            }
+        }
+        Integer[] byId = new Integer[identified];
+        for (int p = 0, next = 0; p < n; p++) {
+            if (items.get(p).getId() != null) {
+                byId[next++] = p;
+            }
+        }
+        Arrays.sort(byId, (a, b) -> Long.compare(items.get(a).getId(), items.get(b).getId()));
+        sortedIds = new long[identified];
+        idPositions = new int[identified];
+        for (int r = 0; r < identified; r++) {
+            sortedIds[r] = items.get(byId[r]).getId();
+            idPositions[r] = byId[r];
+        }
+
+        Integer[] order = new Integer[priced];
+        for (int p = 0, next = 0; p < n; p++) {
+            if (items.get(p).getPrice() != null) {
+                order[next++] = p;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(items.get(a).getPrice(), items.get(b).getPrice()));
+        byPrice = new int[priced];
+        sortedPrices = new double[priced];
+        for (int r = 0; r < priced; r++) {
+            byPrice[r] = order[r];
+            sortedPrices[r] = items.get(order[r]).getPrice();
+        }
+
+        bucketSize = Math.max(64, (priced + MAX_PRICE_BUCKETS - 1) / MAX_PRICE_BUCKETS);
+        int buckets = (priced + bucketSize - 1) / bucketSize;
+        cheapest = new long[buckets + 1][];
+        cheapest[0] = new long[words];
+        for (int b = 1; b <= buckets; b++) {
+            cheapest[b] = cheapest[b - 1].clone();
+            for (int r = (b - 1) * bucketSize; r < Math.min(priced, b * bucketSize); r++) {
+                set(cheapest[b], byPrice[r]);
+            }
+        }
+    }
+
+    /**
+     * Version of the catalog this index was built from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<FoodItem> getItems() {
+        return items;
+    }
+
+    /**
+     * A new set holding every item.
+     */
+    public long[] all() {
+        return all.clone();
+    }
+
+    public void retainVegetarian(long[] bits) {
+        and(bits, vegetarian);
+    }
+
+    public void retainVegan(long[] bits) {
+        and(bits, vegan);
+    }
+
+    /**
+     * Clears items containing any of the allergens, compared ignoring case.
+     */
+    public void removeAllergens(long[] bits, Collection<String> excluded) {
+        for (String allergen : excluded) {
+            long[] set = allergen != null ? allergens.get(allergen.toLowerCase(Locale.ROOT)) : null;
+            if (set != null) {
+                andNot(bits, set);
+            }
+        }
+    }
+
+    /**
+     * Keeps priced items costing at most {@code max}: one AND with the
+     * prefix set at the next breakpoint, then the boundary bucket's extra
+     * items are cleared one by one.
+     */
+    public void retainPriceAtMost(long[] bits, double max) {
+        int rank = upperBound(max);
+        int b = (rank + bucketSize - 1) / bucketSize;
+        and(bits, cheapest[b]);
+        for (int r = rank; r < Math.min(byPrice.length, b * bucketSize); r++) {
+            clear(bits, byPrice[r]);
+        }
+    }
+
+    /**
+     * Keeps priced items costing at least {@code min}, the same way from
+     * the breakpoint below.
+     */
+    public void retainPriceAtLeast(long[] bits, double min) {
+        int rank = lowerBound(min);
+        int b = rank / bucketSize;
+        andNot(bits, unpriced, cheapest[b]);
+        for (int r = b * bucketSize; r < rank; r++) {
+            clear(bits, byPrice[r]);
+        }
+    }
+
+    /**
+     * Keeps items whose category contains {@code fragment}, ignoring case.
+     */
+    public void retainCategoryContaining(long[] bits, String fragment) {
+        String needle = fragment.toLowerCase(Locale.ROOT);
+        long[] matching = new long[bits.length];
+        for (Map.Entry<String, long[]> category : categories.entrySet()) {
+            if (category.getKey().contains(needle)) {
+                or(matching, category.getValue());
+            }
+        }
+        and(bits, matching);
+    }
+
+    public boolean contains(long[] bits, long itemId) {
+        int r = Arrays.binarySearch(sortedIds, itemId);
+        if (r < 0) {
+            return false;
+        }
+        int p = idPositions[r];
+        return (bits[p >>> 6] & (1L << p)) != 0;
+    }
+
+    /**
+     * The first {@code limit} items in the set, in catalog order.
+     */
+    public List<FoodItem> first(long[] bits, int limit) {
+        List<FoodItem> result = new ArrayList<>(Math.min(limit, items.size()));
+        for (int w = 0; w < bits.length && result.size() < limit; w++) {
+            long word = bits[w];
+            while (word != 0 && result.size() < limit) {
+                result.add(items.get((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // First rank whose price is above max
+    private int upperBound(double max) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] <= max) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First rank whose price is at least min
+    private int lowerBound(double min) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid] < min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void set(long[] bits, int p) {
+        bits[p >>> 6] |= 1L << p;
+    }
+
+    private static void clear(long[] bits, int p) {
+        bits[p >>> 6] &= ~(1L << p);
+    }
+
+    private static void and(long[] bits, long[] other) {
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] &= other[w];
+        }
+    }
+
+    private static void andNot(long[] bits, long[] other) {
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] &= ~other[w];
+        }
+    }
+
+    private static void andNot(long[] bits, long[] first, long[] second) {
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] &= ~(first[w] | second[w]);
+        }
+    }
+
+    private static void or(long[] bits, long[] other) {
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] |= other[w];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.repository.FoodItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds the {@link CatalogIndex} for the current menu. The index is
+ * rebuilt on first use after any item is saved or deleted, so a burst of
+ * catalog writes costs one rebuild.
+ */
+@Service
+public class CatalogIndexService {
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    private volatile CatalogIndex index;
+    
+    public CatalogIndex index() {
+        CatalogIndex current = index;
+        if (current != null && current.getVersion() == foodItemRepository.getVersion()) {
+            return current;
+        }
+        synchronized (this) {
+            // Read the version first: a write during findAll leaves the index stale, not wrongly current
+            long version = foodItemRepository.getVersion();
+            if (index == null || index.getVersion() != version) {
+                index = new CatalogIndex(foodItemRepository.findAll(), version);
+            }
+            return index;
+        }
+    }
+}
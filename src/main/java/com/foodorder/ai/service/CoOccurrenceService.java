@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.dto.InteractionRow;
+import com.foodorder.ai.ml.CoOccurrenceIndex;
+import com.foodorder.ai.ml.TopKSelector;
+import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+import com.foodorder.ai.repository.FoodItemRepository;
+import com.foodorder.ai.repository.InteractionRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Neighbour-based recommendations for users with at least one order, served
+ * from an in-memory {@link CoOccurrenceIndex}. The index is replayed from
+ * the order history at startup and updated as orders are tracked.
+ */
+@Service
+public class CoOccurrenceService implements SmartInitializingSingleton {
+    
+    @Autowired
+    private InteractionRepository interactionRepository;
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    @Value("${ml.cooccurrence.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ml.cooccurrence.neighbours:20}")
+    private int maxNeighbours;
+    
+    @Value("${ml.cooccurrence.max-history:20}")
+    private int maxHistory;
+    
+    @Value("${ml.cooccurrence.max-users:100000}")
+    private int maxUsers;
+    
+    @Value("${ml.cooccurrence.max-ordered-items:1000}")
+    private int maxOrderedItems;
+    
+    @Value("${ml.cooccurrence.similarity:cosine}")
+    private String similarity;
+    
+    @Value("${ml.ingest.page-size:10000}")
+    private int pageSize;
+    
+    private volatile CoOccurrenceIndex index;
+    
+    /**
+     * Replays every order in id order once the SQL data initializer has run.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        index = new CoOccurrenceIndex(maxNeighbours, maxHistory, maxUsers, maxOrderedItems,
+                                      CoOccurrenceIndex.Similarity.fromName(similarity));
+        
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        List<InteractionRow> page;
+        do {
+            page = interactionRepository.findRowsAfter(lastId, PageRequest.of(0, pageSize));
+            for (InteractionRow row : page) {
+                if (row.getInteractionType() == InteractionType.ORDER) {
+                    index.addOrder(row.getUserId(), row.getFoodItemId());
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        System.out.println("Built item co-occurrence index over " + index.getNumItems() + " items and " +
+                         index.getNumUsers() + " users in " + (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    public void recordOrder(String userId, Long foodItemId) {
+        if (index != null) {
+            index.addOrder(userId, foodItemId);
+        }
+    }
+    
+    /**
+     * Items most similar to the user's recent orders, best first, or null if
+     * the index is disabled or the user has no orders.
+     */
+    public List<FoodItem> recommend(String userId, int topN) {
+        long[] itemIds = recommendIds(userId, topN);
+        if (itemIds == null) {
+            return null;
+        }
+        
+        List<FoodItem> recommendations = new ArrayList<>(itemIds.length);
+        for (long itemId : itemIds) {
+            foodItemRepository.findById(itemId).ifPresent(recommendations::add);
+        }
+        return recommendations;
+    }
+    
+    /**
+     * Same as {@link #recommend} but returns food item ids, for callers that
+     * resolve items themselves.
+     */
+    public long[] recommendIds(String userId, int topN) {
+        if (index == null) {
+            return null;
+        }
+        
+        TopKSelector selector = new TopKSelector(topN);
+        if (!index.topItems(userId, selector)) {
+            return null;
+        }
+        int[] topItems = selector.drainDescending();
+        
+        long[] itemIds = new long[topItems.length];
+        for (int p = 0; p < topItems.length; p++) {
+            itemIds[p] = index.getItemId(topItems[p]);
+        }
+        return itemIds;
+    }
+}
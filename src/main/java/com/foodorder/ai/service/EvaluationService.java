@@ -0,0 +1,477 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodorder.ai.dto.InteractionRow;
+import com.foodorder.ai.ml.AlsConfig;
+import com.foodorder.ai.ml.AlsTrainer;
+import com.foodorder.ai.ml.EvaluationFold;
+import com.foodorder.ai.ml.EvaluationReport;
+import com.foodorder.ai.ml.EvaluationResult;
+import com.foodorder.ai.ml.OfflineEvaluator;
+import com.foodorder.ai.ml.SparseRatingMatrix;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+import com.foodorder.ai.repository.InteractionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline evaluation of ALS hyperparameters on the interaction history.
+ *
+ * The most recent share of interactions is cut into consecutive time
+ * windows. Each window is one fold: the model trains on everything before
+ * it, the same way the training source would see it at that time, and is
+ * asked for the top k items of users who ordered something in the window.
+ * Every point of the factors x regularization x iterations grid is
+ * evaluated on every fold; these jobs run in parallel, with the cores split
+ * between concurrent jobs and the ALS threads inside each.
+ *
+ * Each run writes a JSON report and marks the configuration with the lowest
+ * training time that meets the quality bar.
+ */
+@Service
+public class EvaluationService {
+    
+    @Autowired
+    private InteractionRepository interactionRepository;
+    
+    @Autowired
+    private AffinityService affinityService;
+    
+    @Autowired
+    private MLRecommendationService mlRecommendationService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${ml.evaluation.k:10}")
+    private int k;
+    
+    @Value("${ml.evaluation.folds:3}")
+    private int numFolds;
+    
+    @Value("${ml.evaluation.test-fraction:0.2}")
+    private double testFraction;
+    
+    @Value("${ml.evaluation.max-test-users:10000}")
+    private int maxTestUsers;
+    
+    @Value("${ml.evaluation.factors:10,20,40}")
+    private int[] factorGrid;
+    
+    @Value("${ml.evaluation.regularization:0.01,0.1}")
+    private double[] regularizationGrid;
+    
+    @Value("${ml.evaluation.iterations:10,20}")
+    private int[] iterationGrid;
+    
+    @Value("${ml.evaluation.parallelism:0}")
+    private int parallelism;
+    
+    @Value("${ml.evaluation.min-ndcg:0.0}")
+    private double minNdcg;
+    
+    @Value("${ml.evaluation.min-recall:0.0}")
+    private double minRecall;
+    
+    @Value("${ml.evaluation.report-dir:ml-models/evaluations}")
+    private String reportDir;
+    
+    @Value("${ml.training.source:affinity}")
+    private String trainingSource;
+    
+    @Value("${ml.training.priority:4}")
+    private int trainingPriority;
+    
+    @Value("${ml.training.seed:42}")
+    private long seed;
+    
+    @Value("${ml.ingest.page-size:10000}")
+    private int pageSize;
+    
+    private volatile EvaluationReport latestReport;
+    
+    private final AtomicBoolean evaluationInProgress = new AtomicBoolean(false);
+    private final ExecutorService evaluationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ml-evaluation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private static final DateTimeFormatter REPORT_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    // History columns (25 bytes per interaction) with room for array growth
+    private static final long HISTORY_BYTES_PER_INTERACTION = 40L;
+    // Row and column layouts of one fold's training matrix
+    private static final long FOLD_BYTES_PER_RATING = 16L;
+    
+    private final ZoneId zone = ZoneId.systemDefault();
+    
+    @PreDestroy
+    public void shutdown() {
+        evaluationExecutor.shutdownNow();
+    }
+    
+    /**
+     * Starts an evaluation run in the background unless one is already
+     * running. The report is available from {@link #getLatestReport} once
+     * it finishes.
+     */
+    public boolean requestEvaluation() {
+        if (!evaluationInProgress.compareAndSet(false, true)) {
+            return false;
+        }
+        
+        try {
+            evaluationExecutor.execute(() -> {
+                try {
+                    Thread.currentThread().setPriority(trainingPriority);
+                    evaluate();
+                } catch (Exception e) {
+                    System.err.println("Error evaluating ML configurations: " + e.getMessage());
+                    e.printStackTrace();
+                } finally {
+                    evaluationInProgress.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            evaluationInProgress.set(false);
+            return false;
+        }
+    }
+    
+    public boolean isEvaluationInProgress() {
+        return evaluationInProgress.get();
+    }
+    
+    public EvaluationReport getLatestReport() {
+        return latestReport;
+    }
+    
+    /**
+     * Runs the whole grid on every fold and writes the report. Returns null
+     * if there is not enough history to build a single fold, or if the run
+     * would need more heap than the training budget allows.
+     */
+    public EvaluationReport evaluate() throws IOException, InterruptedException, ExecutionException {
+        long start = System.currentTimeMillis();
+        int configurations = factorGrid.length * regularizationGrid.length * iterationGrid.length;
+        long bytes = estimateBytes(configurations);
+        long budget = mlRecommendationService.memoryBudget();
+        if (bytes > budget) {
+            System.err.println("Refusing to evaluate: needs about " + bytes / (1024 * 1024) + " MB but only " +
+                               budget / (1024 * 1024) + " MB of heap is available for training");
+            return null;
+        }
+        
+        History history = loadHistory();
+        List<EvaluationFold> folds = buildFolds(history);
+        if (folds.isEmpty()) {
+            System.out.println("Not enough interaction history to evaluate");
+            return null;
+        }
+        
+        AlsConfig base = mlRecommendationService.alsConfig();
+        int jobs = configurations * folds.size();
+        int concurrent = concurrentJobs(jobs);
+        int threadsPerJob = threadsPerJob(concurrent);
+        System.out.println("Evaluating " + jobs / folds.size() + " configurations on " + folds.size() +
+                         " folds, " + concurrent + " at a time with " + threadsPerJob + " threads each");
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrent, runnable -> {
+            Thread thread = new Thread(runnable, "ml-evaluation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(trainingPriority);
+            return thread;
+        });
+        OfflineEvaluator evaluator = new OfflineEvaluator(k);
+        List<List<Future<EvaluationResult>>> grid = new ArrayList<>();
+        try {
+            for (int factors : factorGrid) {
+                for (double regularization : regularizationGrid) {
+                    for (int iterations : iterationGrid) {
+                        AlsConfig config = gridPoint(base, factors, regularization, iterations, threadsPerJob);
+                        List<Future<EvaluationResult>> perFold = new ArrayList<>(folds.size());
+                        for (EvaluationFold fold : folds) {
+                            perFold.add(pool.submit(() -> evaluator.evaluate(config, fold)));
+                        }
+                        grid.add(perFold);
+                    }
+                }
+            }
+            
+            List<EvaluationResult> results = new ArrayList<>(grid.size());
+            for (List<Future<EvaluationResult>> perFold : grid) {
+                List<EvaluationResult> foldResults = new ArrayList<>(perFold.size());
+                for (Future<EvaluationResult> result : perFold) {
+                    foldResults.add(result.get());
+                }
+                EvaluationResult averaged = OfflineEvaluator.average(foldResults);
+                averaged.setMeetsQualityBar(averaged.getNdcg() >= minNdcg && averaged.getRecall() >= minRecall);
+                results.add(averaged);
+            }
+            
+            EvaluationResult recommended = results.stream()
+                .filter(EvaluationResult::isMeetsQualityBar)
+                .min(Comparator.comparingDouble(EvaluationResult::getTrainMillis)
+                               .thenComparingDouble(EvaluationResult::getServeMicrosPerUser))
+                .orElse(null);
+            
+            EvaluationReport report = new EvaluationReport(LocalDateTime.now(), history.size, k, minNdcg, minRecall,
+                describe(folds), results, recommended, System.currentTimeMillis() - start);
+            latestReport = report;
+            Path file = writeReport(report);
+            System.out.println("ML evaluation finished in " + report.getElapsedMillis() + " ms; report written to " + file);
+            return report;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private int concurrentJobs(int jobs) {
+        return Math.max(1, Math.min(jobs, parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()));
+    }
+    
+    private int threadsPerJob(int concurrent) {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / concurrent);
+    }
+    
+    // The history columns, every fold's training matrix and the concurrent training jobs, sized as for training
+    private long estimateBytes(int configurations) {
+        long interactions = interactionRepository.count();
+        long users = interactionRepository.countDistinctUsers();
+        long items = interactionRepository.countDistinctItems();
+        int folds = Math.max(1, numFolds);
+        int concurrent = concurrentJobs(configurations * folds);
+        int maxFactors = Arrays.stream(factorGrid).max().orElse(1);
+        long jobBytes = AlsTrainer.estimateBytes(users, items, interactions, maxFactors, threadsPerJob(concurrent));
+        return interactions * (HISTORY_BYTES_PER_INTERACTION + folds * FOLD_BYTES_PER_RATING) + concurrent * jobBytes;
+    }
+    
+    private AlsConfig gridPoint(AlsConfig base, int factors, double regularization, int iterations, int threads) {
+        AlsConfig config = new AlsConfig();
+        config.setImplicitFeedback(base.isImplicitFeedback());
+        config.setAlpha(base.getAlpha());
+        config.setNumFactors(factors);
+        config.setRegularization(regularization);
+        config.setIterations(iterations);
+        config.setTolerance(base.getTolerance());
+        config.setSolver(base.getSolver());
+        config.setCgIterations(base.getCgIterations());
+        config.setThreads(threads);
+        config.setThreadPriority(base.getThreadPriority());
+        config.setSeed(base.getSeed());
+        return config;
+    }
+    
+    /**
+     * Reads every interaction in id order into column arrays with dense
+     * user and item indexes.
+     */
+    private History loadHistory() {
+        History history = new History();
+        long lastId = 0L;
+        List<InteractionRow> page;
+        do {
+            page = interactionRepository.findRowsAfter(lastId, PageRequest.of(0, pageSize));
+            for (InteractionRow row : page) {
+                history.add(row, zone);
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        return history;
+    }
+    
+    /**
+     * Cuts the last test-fraction of the history, by interaction count, into
+     * consecutive windows and builds one fold per window that has test users.
+     */
+    private List<EvaluationFold> buildFolds(History history) {
+        List<EvaluationFold> folds = new ArrayList<>();
+        if (history.size == 0 || numFolds <= 0) {
+            return folds;
+        }
+        
+        long[] sorted = Arrays.copyOf(history.timestamps, history.size);
+        Arrays.sort(sorted);
+        int testStart = (int) Math.min(history.size - 1, Math.round(history.size * (1.0 - testFraction)));
+        int window = Math.max(1, (history.size - testStart) / numFolds);
+        for (int f = 0; f < numFolds; f++) {
+            int from = testStart + f * window;
+            if (from >= history.size) {
+                break;
+            }
+            boolean last = f == numFolds - 1 || from + window >= history.size;
+            long cutoff = sorted[from];
+            long end = last ? sorted[history.size - 1] : sorted[from + window];
+            EvaluationFold fold = buildFold(history, cutoff, end, last);
+            if (fold.getTestUsers().length > 0) {
+                folds.add(fold);
+            }
+            if (last) {
+                break;
+            }
+        }
+        return folds;
+    }
+    
+    // Trains on interactions before the cutoff; tests on orders in [cutoff, end), or [cutoff, end] for the last window
+    private EvaluationFold buildFold(History history, long cutoff, long end, boolean inclusiveEnd) {
+        boolean affinities = "affinity".equalsIgnoreCase(trainingSource.trim());
+        int[] rows = new int[history.size];
+        int[] cols = new int[history.size];
+        float[] values = new float[history.size];
+        int count = 0;
+        Map<Integer, Set<Integer>> ordered = new HashMap<>();
+        
+        for (int e = 0; e < history.size; e++) {
+            long at = history.timestamps[e];
+            if (at < cutoff) {
+                InteractionType type = history.types[e];
+                double value = affinities
+                    ? affinityService.decayedWeight(type, history.quantities[e], history.ratings[e], at, cutoff)
+                    : history.ratings[e];
+                rows[count] = history.users[e];
+                cols[count] = history.items[e];
+                values[count] = (float) value;
+                count++;
+            } else if (history.types[e] == InteractionType.ORDER
+                       && (at < end || inclusiveEnd && at == end)) {
+                ordered.computeIfAbsent(history.users[e], user -> new TreeSet<>()).add(history.items[e]);
+            }
+        }
+        
+        // Affinities add up; raw interactions keep the latest rating, as in training
+        SparseRatingMatrix train = SparseRatingMatrix.fromTriplets(history.userIds.size(), history.itemIds.size(),
+            rows, cols, values, count, affinities);
+        int[] rowPtr = train.getRowPointers();
+        List<Integer> candidates = new ArrayList<>();
+        for (Integer user : ordered.keySet()) {
+            if (rowPtr[user + 1] > rowPtr[user]) {
+                candidates.add(user);
+            }
+        }
+        Collections.sort(candidates);
+        if (maxTestUsers > 0 && candidates.size() > maxTestUsers) {
+            Collections.shuffle(candidates, new Random(seed));
+            candidates = new ArrayList<>(candidates.subList(0, maxTestUsers));
+            Collections.sort(candidates);
+        }
+        
+        int[] testUsers = new int[candidates.size()];
+        int[][] relevantItems = new int[candidates.size()][];
+        for (int t = 0; t < testUsers.length; t++) {
+            testUsers[t] = candidates.get(t);
+            relevantItems[t] = ordered.get(testUsers[t]).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new EvaluationFold(train, testUsers, relevantItems, toDateTime(cutoff), toDateTime(end));
+    }
+    
+    private LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+    
+    private List<Map<String, Object>> describe(List<EvaluationFold> folds) {
+        List<Map<String, Object>> described = new ArrayList<>(folds.size());
+        for (EvaluationFold fold : folds) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("cutoff", fold.getCutoff());
+            entry.put("end", fold.getEnd());
+            entry.put("trainRatings", fold.getTrain().nnz());
+            entry.put("testUsers", fold.getTestUsers().length);
+            described.add(entry);
+        }
+        return described;
+    }
+    
+    private Path writeReport(EvaluationReport report) throws IOException {
+        Path dir = Paths.get(reportDir);
+        Files.createDirectories(dir);
+        Path file = dir.resolve("evaluation-" + report.getGeneratedAt().format(REPORT_NAME) + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        return file;
+    }
+    
+    // Interaction columns with dense user and item indexes; a missing
+    // quantity is stored as 1 and a missing rating as 0, as weighting treats them
+    private static class History {
+        private final Map<String, Integer> userIds = new HashMap<>();
+        private final Map<Long, Integer> itemIds = new HashMap<>();
+        private int[] users = new int[1024];
+        private int[] items = new int[1024];
+        private InteractionType[] types = new InteractionType[1024];
+        private int[] quantities = new int[1024];
+        private float[] ratings = new float[1024];
+        private long[] timestamps = new long[1024];
+        private int size;
+        
+        void add(InteractionRow row, ZoneId zone) {
+            if (row.getTimestamp() == null) {
+                return;
+            }
+            if (size == users.length) {
+                int capacity = size + (size >> 1);
+                users = Arrays.copyOf(users, capacity);
+                items = Arrays.copyOf(items, capacity);
+                types = Arrays.copyOf(types, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+            }
+            users[size] = userIds.computeIfAbsent(row.getUserId(), id -> userIds.size());
+            items[size] = itemIds.computeIfAbsent(row.getFoodItemId(), id -> itemIds.size());
+            types[size] = row.getInteractionType();
+            quantities[size] = row.getQuantity() != null ? row.getQuantity() : 1;
+            ratings[size] = row.getRating() != null ? row.getRating().floatValue() : 0f;
+            timestamps[size] = row.getTimestamp().atZone(zone).toInstant().toEpochMilli();
+            size++;
+        }
+    }
+}
@@ -28,7 +28,6 @@ import com.foodorder.ai.dto.RecommendationRequest;
 import com.foodorder.ai.dto.RecommendationResponse;
 import com.foodorder.ai.dto.UserPreferences;
 import com.foodorder.ai.model.FoodItem;
-import com.foodorder.ai.repository.FoodItemRepository;
 import com.theokanning.openai.completion.chat.ChatCompletionRequest;
 import com.theokanning.openai.completion.chat.ChatMessage;
 import com.theokanning.openai.completion.chat.ChatMessageRole;
@@ -41,6 +40,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -49,18 +49,25 @@ public class FoodRecommendationService {
     @Value("${openai.api.key:#{null}}")
     private String apiKey;
 
-    @Autowired
-    private FoodItemRepository foodItemRepository;
-
     @Autowired
     private GeminiService geminiService;
 
     @Autowired
     private MLRecommendationService mlService;
 
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private CatalogIndexService catalogIndexService;
+
+    private static final int TRENDING_CANDIDATES = 50;
+
     public RecommendationResponse getRecommendations(RecommendationRequest request) {
         UserPreferences prefs = request.getUserPreferences();
-        List<FoodItem> availableItems = foodItemRepository.findAll();
         
         String userId = prefs.getUserId();
         
@@ -80,10 +87,36 @@ public class FoodRecommendationService {
                 String reasoning = "ML-based personalized recommendations based on your order history and similar users' preferences.";
                 return new RecommendationResponse(mlRecs, reasoning, estimatedTotal);
             }
-        } else {
-            System.out.println("Falling back to AI/Mock recommendations for user: " + userId);
         }
+        
+        if (userId != null) {
+            List<FoodItem> neighbourRecs = coOccurrenceService.recommend(userId, 5);
+            if (neighbourRecs != null) {
+                neighbourRecs = applyUserFilters(neighbourRecs, prefs);
+                if (!neighbourRecs.isEmpty()) {
+                    double estimatedTotal = neighbourRecs.stream()
+                            .mapToDouble(FoodItem::getPrice)
+                            .sum();
+                    
+                    String reasoning = "Recommended because customers who ordered the same dishes as you also ordered these.";
+                    return new RecommendationResponse(neighbourRecs, reasoning, estimatedTotal);
+                }
+            }
+        }
+        
+        List<FoodItem> trendingRecs = popularNow(userId, prefs);
+        if (!trendingRecs.isEmpty()) {
+            double estimatedTotal = trendingRecs.stream()
+                    .mapToDouble(FoodItem::getPrice)
+                    .sum();
+            
+            String reasoning = "Popular right now with customers like you and matching your preferences.";
+            return new RecommendationResponse(trendingRecs, reasoning, estimatedTotal);
+        }
+        
+        System.out.println("Falling back to AI/Mock recommendations for user: " + userId);
 
+        List<FoodItem> availableItems = catalogIndexService.index().getItems();
         String prompt = buildPrompt(prefs, availableItems);
         String aiResponse;
 
@@ -92,7 +125,7 @@ public class FoodRecommendationService {
         } else if (apiKey != null && !apiKey.isEmpty()) {
             aiResponse = callOpenAI(prompt);
         } else {
-            aiResponse = mockAIResponse(prefs, availableItems);
+            aiResponse = mockAIResponse(prefs);
         }
 
         List<FoodItem> recommendedItems = parseRecommendations(aiResponse, availableItems);
@@ -104,31 +137,42 @@ public class FoodRecommendationService {
         return new RecommendationResponse(recommendedItems, aiResponse, estimatedTotal);
     }
     
-    private List<FoodItem> applyUserFilters(List<FoodItem> items, UserPreferences prefs) {
+    // Trending items in the preferred cuisine, or in any cuisine if none of those pass the filters
+    private List<FoodItem> popularNow(String userId, UserPreferences prefs) {
+        if (prefs.getPreferredCuisine() != null) {
+            List<FoodItem> cuisineRecs = applyUserFilters(
+                trendingService.popularNow(userId, prefs.getPreferredCuisine(), TRENDING_CANDIDATES, 3), prefs);
+            if (!cuisineRecs.isEmpty()) {
+                return cuisineRecs;
+            }
+        }
+        return applyUserFilters(trendingService.popularNow(userId, null, TRENDING_CANDIDATES, 3), prefs);
+    }
+    
+    List<FoodItem> applyUserFilters(List<FoodItem> items, UserPreferences prefs) {
+        return applyUserFilters(catalogIndexService.index(), items, prefs);
+    }
+    
+    List<FoodItem> applyUserFilters(CatalogIndex catalog, List<FoodItem> items, UserPreferences prefs) {
+        long[] eligible = catalog.all();
+        if (prefs.getBudgetMax() != null) {
+            catalog.retainPriceAtMost(eligible, prefs.getBudgetMax());
+        }
+        if (prefs.getDietaryPreference() != null) {
+            String dietPref = prefs.getDietaryPreference().toLowerCase();
+            if (dietPref.contains("vegan")) {
+                catalog.retainVegan(eligible);
+            }
+            if (dietPref.contains("vegetarian")) {
+                catalog.retainVegetarian(eligible);
+            }
+        }
+        if (prefs.getAllergens() != null) {
+            catalog.removeAllergens(eligible, prefs.getAllergens());
+        }
+        
         return items.stream()
-            .filter(item -> {
-                if (prefs.getBudgetMax() != null && item.getPrice() > prefs.getBudgetMax()) {
-                    return false;
-                }
-                if (prefs.getDietaryPreference() != null) {
-                    String dietPref = prefs.getDietaryPreference().toLowerCase();
-                    if (dietPref.contains("vegan") && !item.isVegan()) {
-                        return false;
-                    }
-                    if (dietPref.contains("vegetarian") && !item.isVegetarian()) {
-                        return false;
-                    }
-                }
-                if (prefs.getAllergens() != null && item.getAllergens() != null) {
-                    for (String allergen : item.getAllergens()) {
-                        if (prefs.getAllergens().stream()
-                            .anyMatch(a -> a.equalsIgnoreCase(allergen))) {
-                            return false;
-                        }
-                    }
-                }
-                return true;
-            })
+            .filter(item -> item.getId() != null && catalog.contains(eligible, item.getId()))
             .limit(3)
             .collect(Collectors.toList());
     }
@@ -200,7 +244,7 @@ public class FoodRecommendationService {
                     .getMessage()
                     .getContent();
         } catch (Exception e) {
-            return mockAIResponse(null, foodItemRepository.findAll());
+            return mockAIResponse(null);
         }
     }
 
@@ -210,138 +254,82 @@ public class FoodRecommendationService {
             if (response != null && !response.isEmpty()) {
                 return response;
             }
-            return mockAIResponse(null, foodItemRepository.findAll());
+            return mockAIResponse(null);
         } catch (Exception e) {
-            return mockAIResponse(null, foodItemRepository.findAll());
+            return mockAIResponse(null);
         }
     }
 
-    private String mockAIResponse(UserPreferences prefs, List<FoodItem> availableItems) {
+    private String mockAIResponse(UserPreferences prefs) {
         StringBuilder response = new StringBuilder();
-        List<FoodItem> filteredItems = new ArrayList<>(availableItems);
+        CatalogIndex catalog = catalogIndexService.index();
+        List<FoodItem> recommendedItems = new ArrayList<>();
         
         if (prefs != null) {
+            long[] eligible = catalog.all();
             if (prefs.getDietaryPreference() != null) {
-                String dietPref = prefs.getDietaryPreference().toLowerCase();
-                filteredItems = filteredItems.stream()
-                    .filter(item -> {
-                        if (dietPref.contains("vegan")) {
-                            return item.isVegan();
-                        } else if (dietPref.contains("vegetarian")) {
-                            return item.isVegetarian();
-                        }
-                        return true;
-                    })
-                    .collect(Collectors.toList());
+                retainDiet(catalog, eligible, prefs.getDietaryPreference());
             }
-            
             if (prefs.getBudgetMax() != null) {
-                filteredItems = filteredItems.stream()
-                    .filter(item -> item.getPrice() <= prefs.getBudgetMax())
-                    .collect(Collectors.toList());
+                catalog.retainPriceAtMost(eligible, prefs.getBudgetMax());
             }
-            
             if (prefs.getBudgetMin() != null) {
-                filteredItems = filteredItems.stream()
-                    .filter(item -> item.getPrice() >= prefs.getBudgetMin())
-                    .collect(Collectors.toList());
+                catalog.retainPriceAtLeast(eligible, prefs.getBudgetMin());
             }
-            
             if (prefs.getAllergens() != null && !prefs.getAllergens().isEmpty()) {
-                filteredItems = filteredItems.stream()
-                    .filter(item -> {
-                        if (item.getAllergens() == null) return true;
-                        for (String allergen : item.getAllergens()) {
-                            if (prefs.getAllergens().stream()
-                                .anyMatch(a -> a.equalsIgnoreCase(allergen))) {
-                                return false;
-                            }
-                        }
-                        return true;
-                    })
-                    .collect(Collectors.toList());
+                catalog.removeAllergens(eligible, prefs.getAllergens());
             }
-            
             if (prefs.getPreferredCuisine() != null) {
-                List<FoodItem> cuisineMatches = filteredItems.stream()
-                    .filter(item -> item.getCategory() != null && 
-                           item.getCategory().toLowerCase().contains(prefs.getPreferredCuisine().toLowerCase()))
-                    .collect(Collectors.toList());
-                if (!cuisineMatches.isEmpty()) {
-                    filteredItems = cuisineMatches;
-                }
+                eligible = narrowIfAny(eligible, bits -> catalog.retainCategoryContaining(bits, prefs.getPreferredCuisine()));
             }
+            recommendedItems = catalog.first(eligible, 3);
+        } else {
+            recommendedItems = catalog.first(catalog.all(), 3);
         }
         
-        List<Long> recommendedIds = filteredItems.stream()
-                .limit(3)
-                .map(FoodItem::getId)
-                .collect(Collectors.toList());
-        
-        if (recommendedIds.isEmpty() && prefs != null) {
-            List<FoodItem> partialMatch = new ArrayList<>(availableItems);
+        if (recommendedItems.isEmpty() && prefs != null) {
+            long[] partialMatch = catalog.all();
             
             if (prefs.getDietaryPreference() != null) {
-                String dietPref = prefs.getDietaryPreference().toLowerCase();
-                List<FoodItem> dietMatches = partialMatch.stream()
-                    .filter(item -> {
-                        if (dietPref.contains("vegan")) return item.isVegan();
-                        if (dietPref.contains("vegetarian")) return item.isVegetarian();
-                        return true;
-                    })
-                    .collect(Collectors.toList());
-                if (!dietMatches.isEmpty()) {
-                    partialMatch = dietMatches;
-                }
+                partialMatch = narrowIfAny(partialMatch, bits -> retainDiet(catalog, bits, prefs.getDietaryPreference()));
             }
-            
-            if (prefs.getBudgetMax() != null && !partialMatch.isEmpty()) {
-                List<FoodItem> budgetMatches = partialMatch.stream()
-                    .filter(item -> item.getPrice() <= prefs.getBudgetMax())
-                    .collect(Collectors.toList());
-                if (!budgetMatches.isEmpty()) {
-                    partialMatch = budgetMatches;
-                }
+            if (prefs.getBudgetMax() != null) {
+                partialMatch = narrowIfAny(partialMatch, bits -> catalog.retainPriceAtMost(bits, prefs.getBudgetMax()));
             }
-            
-            if (prefs.getAllergens() != null && !prefs.getAllergens().isEmpty() && !partialMatch.isEmpty()) {
-                List<FoodItem> allergenSafe = partialMatch.stream()
-                    .filter(item -> {
-                        if (item.getAllergens() == null) return true;
-                        for (String allergen : item.getAllergens()) {
-                            if (prefs.getAllergens().stream()
-                                .anyMatch(a -> a.equalsIgnoreCase(allergen))) {
-                                return false;
-                            }
-                        }
-                        return true;
-                    })
-                    .collect(Collectors.toList());
-                if (!allergenSafe.isEmpty()) {
-                    partialMatch = allergenSafe;
-                }
+            if (prefs.getAllergens() != null && !prefs.getAllergens().isEmpty()) {
+                partialMatch = narrowIfAny(partialMatch, bits -> catalog.removeAllergens(bits, prefs.getAllergens()));
             }
             
-            recommendedIds = partialMatch.stream()
-                    .limit(3)
-                    .map(FoodItem::getId)
-                    .collect(Collectors.toList());
+            recommendedItems = catalog.first(partialMatch, 3);
         }
         
-        if (recommendedIds.isEmpty()) {
-            recommendedIds = availableItems.stream()
-                    .limit(2)
-                    .map(FoodItem::getId)
-                    .collect(Collectors.toList());
+        if (recommendedItems.isEmpty()) {
+            recommendedItems = catalog.first(catalog.all(), 2);
         }
         
-        response.append("RECOMMENDED_IDS: ").append(recommendedIds.stream()
-                .map(String::valueOf)
+        response.append("RECOMMENDED_IDS: ").append(recommendedItems.stream()
+                .map(item -> String.valueOf(item.getId()))
                 .collect(Collectors.joining(", "))).append("\n");
         response.append("REASONING: Based on your preferences, these items best match your dietary requirements, budget, and taste preferences.");
         
         return response.toString();
     }
+    
+    private void retainDiet(CatalogIndex catalog, long[] bits, String dietaryPreference) {
+        String dietPref = dietaryPreference.toLowerCase();
+        if (dietPref.contains("vegan")) {
+            catalog.retainVegan(bits);
+        } else if (dietPref.contains("vegetarian")) {
+            catalog.retainVegetarian(bits);
+        }
+    }
+    
+    // Applies the filter to a copy and keeps it unless it leaves nothing
+    private long[] narrowIfAny(long[] bits, Consumer<long[]> filter) {
+        long[] narrowed = bits.clone();
+        filter.accept(narrowed);
+        return CatalogIndex.isEmpty(narrowed) ? bits : narrowed;
+    }
 
     private List<FoodItem> parseRecommendations(String aiResponse, List<FoodItem> availableItems) {
         List<FoodItem> recommended = new ArrayList<>();
@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.dto.UserInteractionCount;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+import com.foodorder.ai.repository.InteractionRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user order and view counts kept in memory, so eligibility checks on
+ * the request path never query the interaction table. Seeded with one
+ * grouped count at startup and incremented as interactions are tracked.
+ *
+ * Both counts live in one {@link AtomicLong} per user, orders in the high
+ * 32 bits and views in the low 32, so a user costs one map entry and an
+ * increment is a single atomic add.
+ */
+@Service
+public class InteractionCountService implements SmartInitializingSingleton {
+    
+    @Autowired
+    private InteractionRepository interactionRepository;
+    
+    private static final long ONE_ORDER = 1L << 32;
+    private static final long ONE_VIEW = 1L;
+    private static final long VIEW_MASK = 0xFFFFFFFFL;
+    
+    // Users are added concurrently by request threads for as long as the app runs. A concurrent map
+    // gives lock-free reads and per-bin inserts; interning ids into a primitive index would need a
+    // lock around every growth of both the dictionary and the counter array, on the request path.
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+    
+    /**
+     * Seeds the counts once the SQL data initializer has run and before the
+     * web server accepts requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        for (UserInteractionCount count : interactionRepository.countByUserAndType()) {
+            add(count.getUserId(), count.getInteractionType(), count.getCount());
+        }
+        System.out.println("Loaded interaction counts for " + counts.size() + " users in " +
+                         (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    public void recordInteraction(String userId, InteractionType type) {
+        if (userId != null) {
+            add(userId, type, 1L);
+        }
+    }
+    
+    // ConcurrentHashMap rejects null keys, so anonymous callers count as no interactions
+    public long getOrderCount(String userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        AtomicLong packed = counts.get(userId);
+        return packed != null ? packed.get() >>> 32 : 0L;
+    }
+    
+    public long getViewCount(String userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        AtomicLong packed = counts.get(userId);
+        return packed != null ? packed.get() & VIEW_MASK : 0L;
+    }
+    
+    private void add(String userId, InteractionType type, long n) {
+        if (userId == null || n <= 0) {
+            return;
+        }
+        long delta;
+        if (type == InteractionType.ORDER) {
+            delta = n * ONE_ORDER;
+        } else if (type == InteractionType.VIEW) {
+            delta = n * ONE_VIEW;
+        } else {
+            return;
+        }
+        counts.computeIfAbsent(userId, id -> new AtomicLong()).addAndGet(delta);
+    }
+}
@@ -27,6 +27,7 @@ package com.foodorder.ai.service;
 import com.foodorder.ai.model.UserItemInteraction;
 import com.foodorder.ai.repository.InteractionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
@@ -37,6 +38,21 @@ public class InteractionTrackingService {
     @Autowired
     private InteractionRepository interactionRepository;
     
+    @Autowired
+    private AffinityService affinityService;
+    
+    @Autowired
+    private MLRecommendationService mlRecommendationService;
+    
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
+    @Autowired
+    private InteractionCountService interactionCountService;
+    
     public void trackOrder(String userId, Map<Long, Integer> items) {
         items.forEach((itemId, quantity) -> {
             UserItemInteraction interaction = new UserItemInteraction();
@@ -47,7 +63,14 @@ public class InteractionTrackingService {
             interaction.setRating(quantity * 1.0);
             
             interactionRepository.save(interaction);
+            interactionCountService.recordInteraction(userId, interaction.getInteractionType());
+            updateAffinity(interaction);
+            coOccurrenceService.recordOrder(userId, itemId);
+            trendingService.recordInteraction(userId, itemId, interaction.getInteractionType(), quantity,
+                interaction.getTimestamp());
         });
+        
+        mlRecommendationService.requestFoldIn(userId);
     }
     
     public void trackView(String userId, Long foodItemId) {
@@ -59,6 +82,11 @@ public class InteractionTrackingService {
         interaction.setQuantity(1);
         
         interactionRepository.save(interaction);
+        interactionCountService.recordInteraction(userId, interaction.getInteractionType());
+        updateAffinity(interaction);
+        trendingService.recordInteraction(userId, foodItemId, interaction.getInteractionType(), 1,
+            interaction.getTimestamp());
+        mlRecommendationService.requestFoldIn(userId);
     }
     
     public void trackRating(String userId, Long foodItemId, Double rating) {
@@ -70,9 +98,24 @@ public class InteractionTrackingService {
         interaction.setQuantity(1);
         
         interactionRepository.save(interaction);
+        updateAffinity(interaction);
+        mlRecommendationService.requestFoldIn(userId);
+    }
+    
+    private void updateAffinity(UserItemInteraction interaction) {
+        try {
+            affinityService.addInteraction(interaction.getUserId(), interaction.getFoodItemId(),
+                interaction.getInteractionType(), interaction.getQuantity(), interaction.getRating(),
+                interaction.getTimestamp());
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the pair first; the retry finds and locks its row
+            affinityService.addInteraction(interaction.getUserId(), interaction.getFoodItemId(),
+                interaction.getInteractionType(), interaction.getQuantity(), interaction.getRating(),
+                interaction.getTimestamp());
+        }
     }
     
     public Long getOrderCount(String userId) {
-        return interactionRepository.countOrdersByUserId(userId);
+        return interactionCountService.getOrderCount(userId);
     }
 }
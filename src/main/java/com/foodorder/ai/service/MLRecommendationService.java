@@ -24,303 +24,739 @@
 
 package com.foodorder.ai.service;
 
+import com.foodorder.ai.dto.InteractionRow;
+import com.foodorder.ai.ml.AlsConfig;
+import com.foodorder.ai.ml.AlsTrainer;
+import com.foodorder.ai.ml.BlockScorer;
+import com.foodorder.ai.ml.FactorModel;
+import com.foodorder.ai.ml.HnswIndex;
+import com.foodorder.ai.ml.ImplicitAlsTrainer;
+import com.foodorder.ai.ml.ItemRetriever;
+import com.foodorder.ai.ml.LinearSolver;
 import com.foodorder.ai.ml.MatrixBuilder;
 import com.foodorder.ai.ml.ModelPersistence;
+import com.foodorder.ai.ml.ModelSnapshot;
+import com.foodorder.ai.ml.NormSortedIndex;
+import com.foodorder.ai.ml.ParallelRows;
+import com.foodorder.ai.ml.RecommendationTable;
+import com.foodorder.ai.ml.SparseRatingMatrix;
+import com.foodorder.ai.ml.TopKSelector;
+import com.foodorder.ai.ml.TrainingProgress;
+import com.foodorder.ai.ml.UserFoldIn;
 import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.model.UserItemAffinity;
 import com.foodorder.ai.model.UserItemInteraction;
+import com.foodorder.ai.repository.AffinityRepository;
 import com.foodorder.ai.repository.FoodItemRepository;
 import com.foodorder.ai.repository.InteractionRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import smile.math.matrix.Matrix;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
-public class MLRecommendationService {
+public class MLRecommendationService implements SmartInitializingSingleton {
     
     @Autowired
     private InteractionRepository interactionRepository;
     
+    @Autowired
+    private InteractionCountService interactionCountService;
+    
     @Autowired
     private FoodItemRepository foodItemRepository;
     
-    private Matrix userFactors;
-    private Matrix itemFactors;
-    private MatrixBuilder matrixBuilder;
-    private boolean modelTrained = false;
+    @Autowired
+    private AffinityRepository affinityRepository;
+    
+    @Autowired
+    private AffinityService affinityService;
+    
+    @Value("${ml.als.mode:explicit}")
+    private String alsMode;
+    
+    @Value("${ml.als.alpha:40.0}")
+    private double alpha;
+    
+    @Value("${ml.als.factors:10}")
+    private int latentFactors;
+    
+    @Value("${ml.als.regularization:0.01}")
+    private double regularization;
+    
+    @Value("${ml.als.iterations:20}")
+    private int iterations;
+    
+    @Value("${ml.als.tolerance:0.001}")
+    private double tolerance;
+    
+    @Value("${ml.als.warm-start:true}")
+    private boolean warmStart;
+    
+    @Value("${ml.als.solver:cholesky}")
+    private String solver;
+    
+    @Value("${ml.als.cg-iterations:3}")
+    private int cgIterations;
+    
+    @Value("${ml.training.threads:0}")
+    private int trainingThreads;
+    
+    @Value("${ml.training.seed:42}")
+    private long trainingSeed;
+    
+    @Value("${ml.training.priority:4}")
+    private int trainingPriority;
+    
+    @Value("${ml.training.max-heap-fraction:0.5}")
+    private double maxHeapFraction;
+    
+    @Value("${ml.retrieval.mode:exact}")
+    private String retrievalMode;
+    
+    @Value("${ml.ann.min-items:10000}")
+    private int annMinItems;
+    
+    @Value("${ml.ann.m:16}")
+    private int annM;
+    
+    @Value("${ml.ann.ef-construction:200}")
+    private int annEfConstruction;
+    
+    @Value("${ml.ann.ef-search:100}")
+    private int annEfSearch;
+    
+    @Value("${ml.precompute.top-k:20}")
+    private int precomputeTopK;
+    
+    @Value("${ml.precompute.max-users:1000000}")
+    private int precomputeMaxUsers;
+    
+    @Value("${ml.training.source:affinity}")
+    private String trainingSource;
+    
+    @Value("${ml.ingest.page-size:10000}")
+    private int ingestPageSize;
+    
+    @Value("${ml.fold-in.enabled:true}")
+    private boolean foldInEnabled;
+    
+    @Value("${ml.batch.threads:0}")
+    private int batchThreads;
+    
+    private volatile ModelSnapshot model;
+    
+    private final AtomicBoolean trainingInProgress = new AtomicBoolean(false);
+    private final TrainingProgress trainingProgress = new TrainingProgress();
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ml-training");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Set<String> pendingFoldIns = ConcurrentHashMap.newKeySet();
+    private final ExecutorService foldInExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ml-fold-in");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Only touched from the fold-in thread
+    private UserFoldIn userFoldIn;
+    
+    private int batchParallelism;
+    private ForkJoinPool batchPool;
     
-    private static final int LATENT_FACTORS = 10;
-    private static final double REGULARIZATION = 0.01;
-    private static final int ITERATIONS = 20;
     private static final int MIN_ORDERS_FOR_ML = 2;
+    private static final String MODEL_FILE = "model.bin";
     
     @PostConstruct
     public void init() {
+        // Checked here because an invalid priority would otherwise fail inside the training thread
+        if (trainingPriority < Thread.MIN_PRIORITY || trainingPriority > Thread.MAX_PRIORITY) {
+            throw new IllegalArgumentException("ml.training.priority must be between " + Thread.MIN_PRIORITY +
+                                               " and " + Thread.MAX_PRIORITY + " but was " + trainingPriority);
+        }
+        batchParallelism = batchThreads > 0 ? batchThreads : Runtime.getRuntime().availableProcessors();
+        batchPool = ParallelRows.newPool(batchParallelism, Thread.NORM_PRIORITY);
+    }
+    
+    /**
+     * Loads or trains the model once the SQL data initializer has run, so
+     * the staleness check and the first training run see the seeded data.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
         try {
             loadModel();
         } catch (Exception e) {
-            System.out.println("No existing model found. Will train on first request.");
+            System.err.println("Error loading model: " + e.getMessage());
+        }
+        
+        if (model == null) {
+            System.out.println("No usable model found. Training in the background.");
+            requestTraining();
         }
     }
     
+    @PreDestroy
+    public void shutdown() {
+        trainingExecutor.shutdownNow();
+        foldInExecutor.shutdownNow();
+        batchPool.shutdownNow();
+    }
+    
     @Scheduled(cron = "0 0 2 * * ?")
     public void scheduledTraining() {
+        if (requestTraining()) {
+            System.out.println("Scheduled ML model training started");
+        } else {
+            System.out.println("Scheduled ML model training skipped: a training run is already in progress");
+        }
+    }
+    
+    /**
+     * Starts a training run on the background training thread unless one is
+     * already running. Never blocks the caller; the new model is published
+     * when training finishes and the current one keeps serving until then.
+     */
+    public boolean requestTraining() {
+        if (!trainingInProgress.compareAndSet(false, true)) {
+            return false;
+        }
+        
+        trainingProgress.start();
         try {
-            trainModel();
-            System.out.println("Scheduled ML model training completed successfully");
-        } catch (Exception e) {
-            System.err.println("Scheduled training failed: " + e.getMessage());
+            trainingExecutor.execute(() -> {
+                try {
+                    Thread.currentThread().setPriority(trainingPriority);
+                    trainModel();
+                } finally {
+                    trainingInProgress.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            trainingProgress.finish(TrainingProgress.State.FAILED, "Training executor is shut down");
+            trainingInProgress.set(false);
+            return false;
         }
     }
     
-    public void trainModel() {
+    /**
+     * Asks the running training job to stop at its next checkpoint (an
+     * ingested page or a completed sweep). The serving model is unaffected.
+     */
+    public boolean cancelTraining() {
+        if (!trainingInProgress.get()) {
+            return false;
+        }
+        trainingProgress.requestCancel();
+        return true;
+    }
+    
+    public TrainingProgress getTrainingProgress() {
+        return trainingProgress;
+    }
+    
+    private void trainModel() {
         try {
-            List<UserItemInteraction> interactions = interactionRepository.findAll();
+            if (useAffinities()) {
+                // The first run can start before AffinityService's own backfill; never train on a partial table
+                affinityService.backfillIfEmpty();
+            }
+            
+            // Pre-flight: never start allocating a matrix that would not fit next to the serving model
+            long[] shape = trainingShape();
+            long budget = memoryBudget();
+            long trainingBytes = AlsTrainer.estimateBytes(shape[0], shape[1], shape[2], latentFactors,
+                trainingThreads > 0 ? trainingThreads : Runtime.getRuntime().availableProcessors());
+            long servingBytes = servingStructureBytes(shape[0], shape[1]);
+            trainingProgress.setEstimatedBytes(trainingBytes + servingBytes);
+            
+            if (trainingBytes > budget) {
+                String message = "Refusing to train: needs about " + toMegabytes(trainingBytes) +
+                                 " MB but only " + toMegabytes(budget) + " MB of heap is available for training";
+                System.err.println(message);
+                trainingProgress.finish(TrainingProgress.State.REFUSED, message);
+                return;
+            }
+            boolean buildServingStructures = trainingBytes + servingBytes <= budget;
+            if (!buildServingStructures) {
+                System.out.println("Low on heap: skipping the precomputed table and HNSW index for this run");
+            }
+            
+            MatrixBuilder matrixBuilder = new MatrixBuilder();
+            long watermark = useAffinities()
+                ? ingestAffinities(matrixBuilder)
+                : ingestInteractions(matrixBuilder);
             
-            if (interactions.isEmpty()) {
+            if (matrixBuilder.getNumUsers() == 0) {
                 System.out.println("No interactions found. Skipping training.");
+                trainingProgress.finish(TrainingProgress.State.COMPLETED, "No interactions found");
                 return;
             }
             
-            matrixBuilder = new MatrixBuilder();
-            Matrix ratings = matrixBuilder.buildRatingMatrix(interactions);
+            SparseRatingMatrix ratings = matrixBuilder.build();
             
             System.out.println("Training ALS model with " + matrixBuilder.getNumUsers() + 
-                             " users and " + matrixBuilder.getNumItems() + " items");
+                             " users, " + matrixBuilder.getNumItems() + " items and " +
+                             ratings.nnz() + " ratings");
             
-            int numUsers = matrixBuilder.getNumUsers();
-            int numItems = matrixBuilder.getNumItems();
+            AlsConfig config = alsConfig();
+            AlsTrainer trainer = config.isImplicitFeedback()
+                ? new ImplicitAlsTrainer(config)
+                : new AlsTrainer(config);
+            trainer.setSweepListener((sweep, loss) -> {
+                trainingProgress.recordSweep(sweep, loss);
+                return !trainingProgress.isCancelRequested();
+            });
+            trainingProgress.setMaxSweeps(config.getIterations());
+            trainingProgress.setState(TrainingProgress.State.TRAINING);
             
-            userFactors = Matrix.rand(numUsers, LATENT_FACTORS);
-            itemFactors = Matrix.rand(numItems, LATENT_FACTORS);
+            ModelSnapshot previous = warmStart ? model : null;
+            FactorModel factors = previous != null
+                ? trainer.train(ratings, previous.getFactors(),
+                                previousUserRows(previous, matrixBuilder), previousItemRows(previous, matrixBuilder))
+                : trainer.train(ratings);
+            System.out.println("ALS ran " + trainer.getIterationsRun() + " of " + config.getIterations() + " sweeps" +
+                             (previous != null ? " (warm-started)" : "") +
+                             (Double.isNaN(trainer.getLoss()) ? "" : ", final loss " + trainer.getLoss()));
             
-            for (int iter = 0; iter < ITERATIONS; iter++) {
-                updateUserFactors(ratings);
-                updateItemFactors(ratings);
-            }
+            trainingProgress.setState(TrainingProgress.State.INDEXING);
+            ItemRetriever retriever = buildRetriever(factors, buildServingStructures);
             
-            modelTrained = true;
+            ModelSnapshot snapshot = new ModelSnapshot(matrixBuilder, factors, LocalDateTime.now(), watermark, retriever);
+            if (buildServingStructures) {
+                snapshot = withRecommendationTable(snapshot);
+            }
+            checkCancelled();
+            model = snapshot;
+            foldInUsersSince(snapshot);
             
-            saveModel();
+            saveModel(snapshot);
             
+            trainingProgress.finish(TrainingProgress.State.COMPLETED, null);
             System.out.println("ML model training completed successfully");
             
+        } catch (CancellationException e) {
+            trainingProgress.finish(TrainingProgress.State.CANCELLED, e.getMessage());
+            System.out.println("ML model training cancelled: " + e.getMessage());
         } catch (Exception e) {
+            trainingProgress.finish(TrainingProgress.State.FAILED, e.getMessage());
             System.err.println("Error training model: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
-    private void updateUserFactors(Matrix ratings) {
-        int numUsers = ratings.nrow();
+    private void checkCancelled() {
+        if (trainingProgress.isCancelRequested()) {
+            throw new CancellationException("Training cancelled by request");
+        }
+    }
+    
+    // Upper bounds of {users, items, ratings} for the next training run
+    private long[] trainingShape() {
+        if (useAffinities()) {
+            return new long[] {affinityRepository.countDistinctUsers(), affinityRepository.countDistinctItems(),
+                               affinityRepository.count()};
+        }
+        return new long[] {interactionRepository.countDistinctUsers(), interactionRepository.countDistinctItems(),
+                           interactionRepository.count()};
+    }
+    
+    /**
+     * Share of the currently free heap a training or evaluation run may use.
+     */
+    public long memoryBudget() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return (long) ((runtime.maxMemory() - used) * maxHeapFraction);
+    }
+    
+    // Optional structures built after training: the top-K table and the HNSW index
+    private long servingStructureBytes(long numUsers, long numItems) {
+        long bytes = 0L;
+        if (precomputeTopK > 0 && precomputeMaxUsers > 0) {
+            bytes += RecommendationTable.estimateBytes(Math.min(numUsers, precomputeMaxUsers), precomputeTopK);
+        }
+        if ("hnsw".equalsIgnoreCase(retrievalMode.trim()) && numItems >= annMinItems) {
+            bytes += HnswIndex.estimateBytes(numItems, annM);
+        }
+        return bytes;
+    }
+    
+    private static long toMegabytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+    
+    /**
+     * Reads interactions in id order, one keyset page at a time, into the
+     * builder and returns the highest id read. Only the projected columns are
+     * loaded and each page is dropped before the next is fetched.
+     */
+    private long ingestInteractions(MatrixBuilder matrixBuilder) {
+        long lastId = 0L;
+        List<InteractionRow> page;
+        do {
+            page = interactionRepository.findRowsAfter(lastId, PageRequest.of(0, ingestPageSize));
+            for (InteractionRow row : page) {
+                matrixBuilder.add(row.getUserId(), row.getFoodItemId(), row.getRating());
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+            trainingProgress.setRowsIngested(trainingProgress.getRowsIngested() + page.size());
+            checkCancelled();
+        } while (page.size() == ingestPageSize);
+        return lastId;
+    }
+    
+    /**
+     * Reads the affinity table, one row per user and item, into the builder
+     * and returns the highest interaction id it reflects. Scores are decayed
+     * to the current time as they are read.
+     */
+    private long ingestAffinities(MatrixBuilder matrixBuilder) {
+        Long maxInteractionId = interactionRepository.findMaxId();
         
-        for (int u = 0; u < numUsers; u++) {
-            double[][] A = new double[LATENT_FACTORS][LATENT_FACTORS];
-            double[] b = new double[LATENT_FACTORS];
-            
-            for (int i = 0; i < ratings.ncol(); i++) {
-                double rating = ratings.get(u, i);
-                if (rating > 0) {
-                    double[] itemFactor = itemFactors.row(i);
-                    
-                    for (int k = 0; k < LATENT_FACTORS; k++) {
-                        b[k] += rating * itemFactor[k];
-                        for (int l = 0; l < LATENT_FACTORS; l++) {
-                            A[k][l] += itemFactor[k] * itemFactor[l];
-                        }
-                    }
-                }
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = 0L;
+        List<UserItemAffinity> page;
+        do {
+            page = affinityRepository.findPageAfter(lastId, PageRequest.of(0, ingestPageSize));
+            for (UserItemAffinity affinity : page) {
+                matrixBuilder.add(affinity.getUserId(), affinity.getFoodItemId(),
+                                  affinityService.currentScore(affinity, now));
             }
-            
-            for (int k = 0; k < LATENT_FACTORS; k++) {
-                A[k][k] += REGULARIZATION;
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
             }
-            
-            try {
-                double[] solution = solveLinearSystem(A, b);
-                for (int k = 0; k < LATENT_FACTORS; k++) {
-                    userFactors.set(u, k, solution[k]);
-                }
-            } catch (Exception e) {
-                System.err.println("Error updating user " + u + ": " + e.getMessage());
+            trainingProgress.setRowsIngested(trainingProgress.getRowsIngested() + page.size());
+            checkCancelled();
+        } while (page.size() == ingestPageSize);
+        return maxInteractionId != null ? maxInteractionId : 0L;
+    }
+    
+    private boolean useAffinities() {
+        return "affinity".equalsIgnoreCase(trainingSource.trim());
+    }
+    
+    // The user's training input: affinity scores, or the latest rating per item
+    private Map<Long, Double> userRatings(String userId) {
+        Map<Long, Double> ratings = new LinkedHashMap<>();
+        if (useAffinities()) {
+            LocalDateTime now = LocalDateTime.now();
+            for (UserItemAffinity affinity : affinityRepository.findByUserId(userId)) {
+                ratings.put(affinity.getFoodItemId(), affinityService.currentScore(affinity, now));
             }
+            return ratings;
         }
+        
+        List<UserItemInteraction> interactions = interactionRepository.findByUserId(userId);
+        interactions.sort(Comparator.comparing(UserItemInteraction::getId));
+        for (UserItemInteraction interaction : interactions) {
+            if (interaction.getRating() != null) {
+                ratings.put(interaction.getFoodItemId(), interaction.getRating());
+            }
+        }
+        return ratings;
     }
     
-    private void updateItemFactors(Matrix ratings) {
-        int numItems = ratings.ncol();
+    /**
+     * Queues a fold-in of the user's current interactions into the serving
+     * model. Requests for a user that is already queued are coalesced.
+     */
+    public void requestFoldIn(String userId) {
+        if (!foldInEnabled || model == null || !pendingFoldIns.add(userId)) {
+            return;
+        }
         
-        for (int i = 0; i < numItems; i++) {
-            double[][] A = new double[LATENT_FACTORS][LATENT_FACTORS];
-            double[] b = new double[LATENT_FACTORS];
-            
-            for (int u = 0; u < ratings.nrow(); u++) {
-                double rating = ratings.get(u, i);
-                if (rating > 0) {
-                    double[] userFactor = userFactors.row(u);
-                    
-                    for (int k = 0; k < LATENT_FACTORS; k++) {
-                        b[k] += rating * userFactor[k];
-                        for (int l = 0; l < LATENT_FACTORS; l++) {
-                            A[k][l] += userFactor[k] * userFactor[l];
-                        }
-                    }
-                }
+        try {
+            foldInExecutor.execute(() -> {
+                pendingFoldIns.remove(userId);
+                foldInUser(userId);
+            });
+        } catch (RejectedExecutionException e) {
+            pendingFoldIns.remove(userId);
+        }
+    }
+    
+    private void foldInUser(String userId) {
+        try {
+            ModelSnapshot snapshot = model;
+            if (snapshot == null) {
+                return;
             }
-            
-            for (int k = 0; k < LATENT_FACTORS; k++) {
-                A[k][k] += REGULARIZATION;
+            if (userFoldIn == null || userFoldIn.getSnapshot() != snapshot) {
+                userFoldIn = new UserFoldIn(snapshot, alsConfig());
             }
             
-            try {
-                double[] solution = solveLinearSystem(A, b);
-                for (int k = 0; k < LATENT_FACTORS; k++) {
-                    itemFactors.set(i, k, solution[k]);
-                }
-            } catch (Exception e) {
-                System.err.println("Error updating item " + i + ": " + e.getMessage());
+            float[] userFactors = userFoldIn.solve(userId, userRatings(userId));
+            if (userFactors != null) {
+                snapshot.putFoldedUser(userId, userFactors);
             }
+        } catch (Exception e) {
+            System.err.println("Error folding in user " + userId + ": " + e.getMessage());
         }
     }
     
-    private double[] solveLinearSystem(double[][] A, double[] b) {
-        int n = b.length;
-        double[] x = new double[n];
+    // Catches up on users whose interactions arrived after the snapshot's training data was read
+    private void foldInUsersSince(ModelSnapshot snapshot) {
+        if (!foldInEnabled) {
+            return;
+        }
         
-        for (int k = 0; k < n; k++) {
-            for (int i = k + 1; i < n; i++) {
-                double factor = A[i][k] / A[k][k];
-                for (int j = k; j < n; j++) {
-                    A[i][j] -= factor * A[k][j];
-                }
-                b[i] -= factor * b[k];
-            }
+        List<String> userIds = interactionRepository.findDistinctUserIdsWithIdGreaterThan(snapshot.getWatermark());
+        if (!userIds.isEmpty()) {
+            System.out.println("Folding in " + userIds.size() + " users with interactions newer than the model");
+        }
+        userIds.forEach(this::requestFoldIn);
+    }
+    
+    // Index of each user in the previous model, or -1 for users it did not have
+    private int[] previousUserRows(ModelSnapshot previous, MatrixBuilder mappings) {
+        int[] rows = new int[mappings.getNumUsers()];
+        for (int u = 0; u < rows.length; u++) {
+            rows[u] = previous.getUserIndex(mappings.getUserId(u));
+        }
+        return rows;
+    }
+    
+    private int[] previousItemRows(ModelSnapshot previous, MatrixBuilder mappings) {
+        int[] rows = new int[mappings.getNumItems()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = previous.getMappings().getItemIndex(mappings.getItemId(i));
+        }
+        return rows;
+    }
+    
+    AlsConfig alsConfig() {
+        AlsConfig config = new AlsConfig();
+        config.setImplicitFeedback("implicit".equalsIgnoreCase(alsMode.trim()));
+        config.setAlpha(alpha);
+        config.setNumFactors(latentFactors);
+        config.setRegularization(regularization);
+        config.setIterations(iterations);
+        config.setTolerance(tolerance);
+        config.setSolver(LinearSolver.Type.fromName(solver));
+        config.setCgIterations(cgIterations);
+        config.setThreads(trainingThreads);
+        config.setThreadPriority(trainingPriority);
+        config.setSeed(trainingSeed);
+        return config;
+    }
+    
+    private boolean useAnnIndex(FactorModel factors) {
+        return "hnsw".equalsIgnoreCase(retrievalMode.trim()) && factors.getNumItems() >= annMinItems;
+    }
+    
+    private ItemRetriever buildRetriever(FactorModel factors) {
+        return buildRetriever(factors, true);
+    }
+    
+    private ItemRetriever buildRetriever(FactorModel factors, boolean allowAnnIndex) {
+        if ("norm-pruned".equalsIgnoreCase(retrievalMode.trim())) {
+            return NormSortedIndex.build(factors);
+        }
+        if (!allowAnnIndex || !useAnnIndex(factors)) {
+            return null;
         }
         
-        for (int i = n - 1; i >= 0; i--) {
-            double sum = 0.0;
-            for (int j = i + 1; j < n; j++) {
-                sum += A[i][j] * x[j];
-            }
-            x[i] = (b[i] - sum) / A[i][i];
+        long start = System.currentTimeMillis();
+        HnswIndex index = HnswIndex.build(factors, annM, annEfConstruction, annEfSearch, trainingSeed);
+        System.out.println("Built HNSW index over " + index.size() + " items in " +
+                         (System.currentTimeMillis() - start) + " ms");
+        return index;
+    }
+    
+    private ModelSnapshot withRecommendationTable(ModelSnapshot snapshot) {
+        if (precomputeTopK <= 0 || precomputeMaxUsers <= 0) {
+            return snapshot;
+        }
+        
+        // Checked again now that training has finished, since the heap has changed since the pre-flight
+        int numUsers = Math.min(snapshot.getNumUsers(), precomputeMaxUsers);
+        long bytes = RecommendationTable.estimateBytes(numUsers, precomputeTopK);
+        if (!RecommendationTable.fitsInArrays(numUsers, precomputeTopK) || bytes > memoryBudget()) {
+            System.out.println("Skipping the top-" + precomputeTopK + " table for " + numUsers + " users (about " +
+                             toMegabytes(bytes) + " MB); their recommendations are scored online");
+            return snapshot;
         }
         
-        return x;
+        long start = System.currentTimeMillis();
+        RecommendationTable table = RecommendationTable.build(snapshot, precomputeTopK, precomputeMaxUsers,
+                                                              trainingThreads, trainingPriority);
+        System.out.println("Precomputed top-" + table.getK() + " items for " + table.getNumUsers() + " users in " +
+                         (System.currentTimeMillis() - start) + " ms");
+        return snapshot.withRecommendationTable(table);
     }
     
     public List<FoodItem> recommend(String userId, int topN) {
-        if (!modelTrained || matrixBuilder == null) {
-            trainModel();
+        ModelSnapshot snapshot = model;
+        if (snapshot == null) {
+            requestTraining();
+            return null;
         }
         
         if (!hasEnoughData(userId)) {
             return null;
         }
         
-        Integer userIndex = matrixBuilder.getUserIndex(userId);
-        if (userIndex == null) {
+        TopKSelector selector = new TopKSelector(topN);
+        if (!snapshot.topItems(userId, selector)) {
             return null;
         }
+        int[] topItems = selector.drainDescending();
         
-        double[] userVector = userFactors.row(userIndex);
-        Map<Long, Double> scores = new HashMap<>();
-        
-        for (int i = 0; i < itemFactors.nrow(); i++) {
-            double[] itemVector = itemFactors.row(i);
-            double score = dotProduct(userVector, itemVector);
-            Long itemId = matrixBuilder.getItemId(i);
-            scores.put(itemId, score);
+        List<FoodItem> recommendations = new ArrayList<>(topItems.length);
+        for (int itemIndex : topItems) {
+            foodItemRepository.findById(snapshot.getItemId(itemIndex)).ifPresent(recommendations::add);
+        }
+        return recommendations;
+    }
+    
+    /**
+     * Top item ids, best first, for each of the given users, or null at the
+     * positions of users the model cannot serve. Users answered by the
+     * precomputed table are copied from it; everyone else is scored in one
+     * block against all items, in parallel.
+     */
+    public long[][] recommendBatch(List<String> userIds, int topN) {
+        long[][] results = new long[userIds.size()][];
+        ModelSnapshot snapshot = model;
+        if (snapshot == null) {
+            requestTraining();
+            return results;
         }
         
-        List<Long> topItemIds = scores.entrySet().stream()
-            .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
-            .limit(topN)
-            .map(Map.Entry::getKey)
-            .collect(Collectors.toList());
+        FactorModel factors = snapshot.getFactors();
+        int numFactors = factors.getNumFactors();
+        RecommendationTable table = snapshot.getRecommendationTable();
+        TopKSelector[] selectors = new TopKSelector[userIds.size()];
+        int[] positions = new int[userIds.size()];
+        float[] queries = new float[userIds.size() * numFactors];
+        int numQueries = 0;
         
-        return topItemIds.stream()
-            .map(id -> foodItemRepository.findById(id))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .collect(Collectors.toList());
+        for (int p = 0; p < userIds.size(); p++) {
+            String userId = userIds.get(p);
+            if (!hasEnoughData(userId)) {
+                continue;
+            }
+            float[] folded = snapshot.getFoldedUser(userId);
+            int userIndex = snapshot.getUserIndex(userId);
+            if (folded == null && userIndex < 0) {
+                continue;
+            }
+            if (folded == null && table != null && table.covers(userIndex, topN)) {
+                TopKSelector selector = new TopKSelector(topN);
+                table.topItems(userIndex, selector);
+                results[p] = itemIds(snapshot, selector);
+                continue;
+            }
+            if (folded != null) {
+                System.arraycopy(folded, 0, queries, numQueries * numFactors, numFactors);
+            } else {
+                System.arraycopy(factors.getUserFactors(), userIndex * numFactors, queries, numQueries * numFactors,
+                                 numFactors);
+            }
+            selectors[numQueries] = new TopKSelector(topN);
+            positions[numQueries] = p;
+            numQueries++;
+        }
+        
+        BlockScorer.topItems(factors, queries, numQueries, selectors, batchPool, batchParallelism);
+        for (int q = 0; q < numQueries; q++) {
+            results[positions[q]] = itemIds(snapshot, selectors[q]);
+        }
+        return results;
     }
     
-    private double dotProduct(double[] a, double[] b) {
-        double sum = 0.0;
-        for (int i = 0; i < a.length; i++) {
-            sum += a[i] * b[i];
+    private long[] itemIds(ModelSnapshot snapshot, TopKSelector selector) {
+        int[] topItems = selector.drainDescending();
+        long[] ids = new long[topItems.length];
+        for (int p = 0; p < topItems.length; p++) {
+            ids[p] = snapshot.getItemId(topItems[p]);
         }
-        return sum;
+        return ids;
     }
     
     public boolean hasEnoughData(String userId) {
-        Long orderCount = interactionRepository.countOrdersByUserId(userId);
-        System.out.println("ML hasEnoughData for user " + userId + ": count=" + orderCount + " (min=" + MIN_ORDERS_FOR_ML + ")");
-        return orderCount != null && orderCount >= MIN_ORDERS_FOR_ML;
+        return interactionCountService.getOrderCount(userId) >= MIN_ORDERS_FOR_ML;
     }
     
     public boolean isModelTrained() {
-        return modelTrained;
+        return model != null;
+    }
+    
+    public boolean isTrainingInProgress() {
+        return trainingInProgress.get();
     }
     
-    private void saveModel() {
+    private void saveModel(ModelSnapshot snapshot) {
         try {
-            ModelPersistence.saveModel(userFactors, "user-factors.bin");
-            ModelPersistence.saveModel(itemFactors, "item-factors.bin");
-            ModelPersistence.saveMappings(
-                matrixBuilder.getUserIdToIndex(),
-                matrixBuilder.getItemIdToIndex(),
-                "mappings.bin"
-            );
+            ModelPersistence.saveModel(snapshot, MODEL_FILE);
             System.out.println("Model saved successfully");
         } catch (Exception e) {
             System.err.println("Error saving model: " + e.getMessage());
         }
     }
     
-    @SuppressWarnings("unchecked")
-    private void loadModel() {
-        try {
-            if (ModelPersistence.modelExists("user-factors.bin")) {
-                userFactors = (Matrix) ModelPersistence.loadModel("user-factors.bin");
-                itemFactors = (Matrix) ModelPersistence.loadModel("item-factors.bin");
-                
-                Map<String, Object> mappings = ModelPersistence.loadMappings("mappings.bin");
-                matrixBuilder = new MatrixBuilder();
-                
-                if (isModelStale()) {
-                    System.out.println("Model is stale (DB was reset). Will retrain on next request.");
-                    modelTrained = false;
-                    userFactors = null;
-                    itemFactors = null;
-                    matrixBuilder = null;
-                } else {
-                    modelTrained = true;
-                    System.out.println("Model loaded successfully");
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error loading model: " + e.getMessage());
+    private void loadModel() throws IOException {
+        if (!ModelPersistence.modelExists(MODEL_FILE)) {
+            return;
         }
-    }
-    
-    private boolean isModelStale() {
-        if (matrixBuilder == null) return true;
         
-        List<String> dbUsers = interactionRepository.findAllDistinctUserIds();
-        if (dbUsers.isEmpty()) {
-            return matrixBuilder.getNumUsers() > 0;
+        long start = System.currentTimeMillis();
+        ModelSnapshot snapshot = ModelPersistence.loadModel(MODEL_FILE);
+        System.out.println("Mapped model with " + snapshot.getNumUsers() + " users and " + snapshot.getNumItems() +
+                         " items in " + (System.currentTimeMillis() - start) + " ms");
+        
+        if (isModelStale(snapshot)) {
+            System.out.println("Model is stale (DB was reset). Retraining in the background.");
+            return;
         }
         
-        boolean anyUserMissing = dbUsers.stream()
-            .anyMatch(userId -> matrixBuilder.getUserIndex(userId) == null);
+        model = withRecommendationTable(snapshot.withRetriever(loadRetriever(snapshot)));
+        System.out.println("Model loaded successfully");
+        foldInUsersSince(model);
+    }
+    
+    private ItemRetriever loadRetriever(ModelSnapshot snapshot) {
+        if (useAnnIndex(snapshot.getFactors()) && snapshot.getRetriever() instanceof HnswIndex) {
+            HnswIndex index = (HnswIndex) snapshot.getRetriever();
+            index.setEfSearch(annEfSearch);
+            return index;
+        }
+        return buildRetriever(snapshot.getFactors());
+    }
+    
+    // New users and orders since training are folded in, so the model is only
+    // stale if the DB no longer holds the interactions it was trained on
+    private boolean isModelStale(ModelSnapshot snapshot) {
+        Long maxId = interactionRepository.findMaxId();
+        if (maxId == null) {
+            return snapshot.getNumUsers() > 0;
+        }
         
-        if (anyUserMissing) {
-            System.out.println("Model has " + matrixBuilder.getNumUsers() + " users, but DB has " + dbUsers.size() + " users (mismatch detected)");
+        if (maxId < snapshot.getWatermark()) {
+            System.out.println("Model was trained on interactions up to id " + snapshot.getWatermark() +
+                             ", but DB only has up to id " + maxId + " (mismatch detected)");
             return true;
         }
         
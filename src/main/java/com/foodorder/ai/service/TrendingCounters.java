@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.ml.TopKSelector;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Weighted event counts per item over sliding time windows: the last hour
+ * (twelve 5-minute buckets), today (hourly buckets since local midnight) and
+ * the last 7 days (daily buckets, today included).
+ *
+ * Every bucket is one {@code long} holding the bucket's time id in the high
+ * bits and its count in the low 24 bits. An increment is a single CAS that
+ * either adds to the bucket or, if the slot still holds an older bucket of
+ * the ring, restarts it, so writers never lock and nothing has to sweep
+ * expired buckets. Events older than what a slot already holds are dropped.
+ *
+ * Counters are kept per slice (for example all users, or one demographic);
+ * a category is an item attribute, so category rankings filter a slice
+ * instead of keeping counters of their own. Rankings are cached for
+ * {@code refreshMillis}, so repeated reads cost a map lookup.
+ */
+public class TrendingCounters {
+
+    public enum Window {
+        LAST_HOUR, TODAY, LAST_7_DAYS;
+
+        public static Window fromName(String name) {
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    public static final String ALL = "all";
+
+    private static final long FIVE_MINUTES = 300_000L;
+    private static final long HOUR = 3_600_000L;
+    private static final long DAY = 24 * HOUR;
+    private static final int FIVE_MINUTE_BUCKETS = 12;
+    private static final int HOUR_BUCKETS = 24;
+    private static final int DAY_BUCKETS = 7;
+    private static final int COUNT_BITS = 24;
+    private static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final ZoneId zone;
+    private final long refreshMillis;
+    private final int rankingSize;
+    private final Map<String, Map<Long, ItemTrend>> slices = new ConcurrentHashMap<>();
+    private final Map<String, Ranking> rankings = new ConcurrentHashMap<>();
+
+    public TrendingCounters(ZoneId zone, long refreshMillis, int rankingSize) {
+        this.zone = zone;
+        this.refreshMillis = refreshMillis;
+        this.rankingSize = rankingSize;
+    }
+
+    /**
+     * Adds {@code weight} for the item at the given time to each slice.
+     */
+    public void record(long itemId, String category, long weight, long timestamp, String... sliceKeys) {
+        long local = localMillis(timestamp);
+        for (String sliceKey : sliceKeys) {
+            if (sliceKey == null) {
+                continue;
+            }
+            ItemTrend trend = slices.computeIfAbsent(sliceKey, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(itemId, id -> new ItemTrend(category));
+            add(trend.fiveMinutes, Math.floorDiv(local, FIVE_MINUTES), weight);
+            add(trend.hours, Math.floorDiv(local, HOUR), weight);
+            add(trend.days, Math.floorDiv(local, DAY), weight);
+        }
+    }
+
+    /**
+     * Up to {@code limit} item ids of the slice with the highest counts in
+     * the window, best first, optionally restricted to one category
+     * (matched case-insensitively). Limits above the ranking size are
+     * capped.
+     */
+    public List<Long> topItems(String sliceKey, Window window, String category, int limit, long now) {
+        String key = sliceKey + '|' + window + '|' + (category != null ? category.toLowerCase() : "*");
+        Ranking ranking = rankings.get(key);
+        if (ranking == null || now - ranking.computedAt > refreshMillis) {
+            ranking = rank(sliceKey, window, category, now);
+            rankings.put(key, ranking);
+        }
+        List<Long> top = new ArrayList<>(Math.min(limit, ranking.itemIds.length));
+        for (int p = 0; p < ranking.itemIds.length && p < limit; p++) {
+            top.add(ranking.itemIds[p]);
+        }
+        return top;
+    }
+
+    private Ranking rank(String sliceKey, Window window, String category, long now) {
+        Map<Long, ItemTrend> slice = slices.get(sliceKey);
+        if (slice == null) {
+            return new Ranking(now, new long[0]);
+        }
+
+        long local = localMillis(now);
+        List<Long> candidates = new ArrayList<>();
+        TopKSelector selector = new TopKSelector(rankingSize);
+        for (Map.Entry<Long, ItemTrend> entry : slice.entrySet()) {
+            ItemTrend trend = entry.getValue();
+            if (category != null && (trend.category == null || !trend.category.equalsIgnoreCase(category))) {
+                continue;
+            }
+            long sum = windowSum(trend, window, local);
+            if (sum > 0) {
+                selector.offer(candidates.size(), sum);
+                candidates.add(entry.getKey());
+            }
+        }
+
+        int[] top = selector.drainDescending();
+        long[] itemIds = new long[top.length];
+        for (int p = 0; p < top.length; p++) {
+            itemIds[p] = candidates.get(top[p]);
+        }
+        return new Ranking(now, itemIds);
+    }
+
+    private long windowSum(ItemTrend trend, Window window, long local) {
+        switch (window) {
+            case LAST_HOUR:
+                long fiveMinutes = Math.floorDiv(local, FIVE_MINUTES);
+                return sum(trend.fiveMinutes, fiveMinutes - FIVE_MINUTE_BUCKETS + 1, fiveMinutes);
+            case TODAY:
+                long hour = Math.floorDiv(local, HOUR);
+                return sum(trend.hours, Math.floorDiv(local, DAY) * HOUR_BUCKETS, hour);
+            case LAST_7_DAYS:
+            default:
+                long day = Math.floorDiv(local, DAY);
+                return sum(trend.days, day - DAY_BUCKETS + 1, day);
+        }
+    }
+
+    private static long sum(AtomicLongArray buckets, long fromBucket, long toBucket) {
+        long total = 0L;
+        for (int slot = 0; slot < buckets.length(); slot++) {
+            long value = buckets.get(slot);
+            long bucket = value >>> COUNT_BITS;
+            if (bucket >= fromBucket && bucket <= toBucket) {
+                total += value & MAX_COUNT;
+            }
+        }
+        return total;
+    }
+
+    private static void add(AtomicLongArray buckets, long bucket, long weight) {
+        int slot = (int) Math.floorMod(bucket, (long) buckets.length());
+        while (true) {
+            long value = buckets.get(slot);
+            long current = value >>> COUNT_BITS;
+            long next;
+            if (current == bucket) {
+                next = (bucket << COUNT_BITS) | Math.min(MAX_COUNT, (value & MAX_COUNT) + weight);
+            } else if (current < bucket) {
+                next = (bucket << COUNT_BITS) | Math.min(MAX_COUNT, weight);
+            } else {
+                return;
+            }
+            if (buckets.compareAndSet(slot, value, next)) {
+                return;
+            }
+        }
+    }
+
+    // Wall-clock millis in the configured zone, so days and hours start at local midnight
+    private long localMillis(long timestamp) {
+        return timestamp + zone.getRules().getOffset(Instant.ofEpochMilli(timestamp)).getTotalSeconds() * 1000L;
+    }
+
+    private static class ItemTrend {
+        private final String category;
+        private final AtomicLongArray fiveMinutes = new AtomicLongArray(FIVE_MINUTE_BUCKETS);
+        private final AtomicLongArray hours = new AtomicLongArray(HOUR_BUCKETS);
+        private final AtomicLongArray days = new AtomicLongArray(DAY_BUCKETS);
+
+        ItemTrend(String category) {
+            this.category = category;
+        }
+    }
+
+    private static class Ranking {
+        private final long computedAt;
+        private final long[] itemIds;
+
+        Ranking(long computedAt, long[] itemIds) {
+            this.computedAt = computedAt;
+            this.itemIds = itemIds;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.service;
+
+import com.foodorder.ai.dto.InteractionRow;
+import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.model.User;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+import com.foodorder.ai.repository.FoodItemRepository;
+import com.foodorder.ai.repository.InteractionRepository;
+import com.foodorder.ai.repository.UserRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Popular right now": weighted order and view counts per item over the
+ * last hour, today and the last 7 days, overall and per demographic
+ * (gender and age band). Replayed from the last week of interactions at
+ * startup and updated as interactions are tracked.
+ */
+@Service
+public class TrendingService implements SmartInitializingSingleton {
+    
+    @Autowired
+    private InteractionRepository interactionRepository;
+    
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${ml.trending.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${ml.trending.order-weight:3}")
+    private long orderWeight;
+    
+    @Value("${ml.trending.view-weight:1}")
+    private long viewWeight;
+    
+    @Value("${ml.trending.demographics:true}")
+    private boolean demographics;
+    
+    @Value("${ml.trending.refresh-millis:1000}")
+    private long refreshMillis;
+    
+    @Value("${ml.trending.ranking-size:100}")
+    private int rankingSize;
+    
+    @Value("${ml.ingest.page-size:10000}")
+    private int pageSize;
+    
+    private static final String NO_SLICE = "";
+    
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final Map<String, String> demographicSlices = new ConcurrentHashMap<>();
+    private volatile TrendingCounters counters;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        counters = new TrendingCounters(zone, refreshMillis, rankingSize);
+        if (demographics) {
+            for (User user : userRepository.findAll()) {
+                demographicSlices.put(user.getUserId(), sliceOf(user));
+            }
+        }
+        
+        long start = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        long replayed = 0;
+        long lastId = 0L;
+        List<InteractionRow> page;
+        do {
+            page = interactionRepository.findRowsAfter(lastId, PageRequest.of(0, pageSize));
+            for (InteractionRow row : page) {
+                if (row.getTimestamp() != null && row.getTimestamp().isAfter(since)) {
+                    // Unknown users were not in the users table above; skip the per-row lookup
+                    String slice = demographics ? demographicSlices.getOrDefault(row.getUserId(), NO_SLICE) : NO_SLICE;
+                    record(row.getFoodItemId(), row.getInteractionType(), row.getQuantity(), row.getTimestamp(), slice);
+                    replayed++;
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+        System.out.println("Replayed " + replayed + " recent interactions into trending counters in " +
+                         (System.currentTimeMillis() - start) + " ms");
+    }
+    
+    public void recordInteraction(String userId, Long foodItemId, InteractionType type, Integer quantity,
+                                  LocalDateTime timestamp) {
+        if (counters != null) {
+            record(foodItemId, type, quantity, timestamp, demographicSlice(userId));
+        }
+    }
+    
+    /**
+     * The most popular items in the window, best first, for the given
+     * category (null for all) among all users or, when {@code userId} is
+     * given and demographics are enabled, among users like them.
+     */
+    public List<FoodItem> trending(String userId, TrendingCounters.Window window, String category, int limit) {
+        return findItems(trendingIds(userId, window, category, limit));
+    }
+    
+    public List<Long> trendingIds(String userId, TrendingCounters.Window window, String category, int limit) {
+        TrendingCounters current = counters;
+        if (current == null) {
+            return new ArrayList<>();
+        }
+        
+        String slice = userId != null ? demographicSlice(userId) : NO_SLICE;
+        return current.topItems(slice.isEmpty() ? TrendingCounters.ALL : slice, window, category,
+                                limit, System.currentTimeMillis());
+    }
+    
+    /**
+     * Cold-start ranking: the user's demographic slice, then all users, each
+     * over the last hour, today and the last 7 days in turn, until some
+     * window has at least {@code minItems} items. Returns the widest
+     * non-empty ranking found otherwise.
+     */
+    public List<FoodItem> popularNow(String userId, String category, int limit, int minItems) {
+        return findItems(popularNowIds(userId, category, limit, minItems));
+    }
+    
+    /**
+     * Same as {@link #popularNow} but returns food item ids, for callers that
+     * resolve items themselves.
+     */
+    public List<Long> popularNowIds(String userId, String category, int limit, int minItems) {
+        List<Long> best = new ArrayList<>();
+        for (String sliceUser : userId != null ? new String[] {userId, null} : new String[] {null}) {
+            for (TrendingCounters.Window window : TrendingCounters.Window.values()) {
+                List<Long> itemIds = trendingIds(sliceUser, window, category, limit);
+                if (itemIds.size() >= minItems) {
+                    return itemIds;
+                }
+                if (itemIds.size() > best.size()) {
+                    best = itemIds;
+                }
+            }
+        }
+        return best;
+    }
+    
+    private List<FoodItem> findItems(List<Long> itemIds) {
+        List<FoodItem> items = new ArrayList<>(itemIds.size());
+        for (Long itemId : itemIds) {
+            foodItemRepository.findById(itemId).ifPresent(items::add);
+        }
+        return items;
+    }
+    
+    private void record(Long foodItemId, InteractionType type, Integer quantity, LocalDateTime timestamp, String slice) {
+        long weight = type == InteractionType.ORDER ? orderWeight * (quantity != null ? quantity : 1)
+                    : type == InteractionType.VIEW ? viewWeight : 0L;
+        LocalDateTime at = timestamp != null ? timestamp : LocalDateTime.now();
+        if (weight <= 0 || foodItemId == null || at.isBefore(LocalDateTime.now().minusDays(7))) {
+            return;
+        }
+        
+        String category = foodItemRepository.findById(foodItemId).map(FoodItem::getCategory).orElse(null);
+        counters.record(foodItemId, category, weight, at.atZone(zone).toInstant().toEpochMilli(),
+                        TrendingCounters.ALL, slice.isEmpty() ? null : slice);
+    }
+    
+    /**
+     * Drops the cached demographic slice of a user whose profile changed or
+     * was deleted.
+     */
+    public void evictUser(String userId) {
+        if (userId != null) {
+            demographicSlices.remove(userId);
+        }
+    }
+    
+    // Cached for existing users only, so unknown ids cannot grow the map
+    private String demographicSlice(String userId) {
+        if (!demographics || userId == null) {
+            return NO_SLICE;
+        }
+        String slice = demographicSlices.get(userId);
+        if (slice != null) {
+            return slice;
+        }
+        Optional<User> user = userRepository.findById(userId);
+        if (!user.isPresent()) {
+            return NO_SLICE;
+        }
+        slice = sliceOf(user.get());
+        demographicSlices.putIfAbsent(userId, slice);
+        return slice;
+    }
+    
+    private String sliceOf(User user) {
+        if (user.getGender() == null || user.getAge() == null) {
+            return NO_SLICE;
+        }
+        int age = user.getAge();
+        String band = age < 25 ? "under-25" : age < 35 ? "25-34" : age < 50 ? "35-49" : "50-plus";
+        return user.getGender() + "/" + band;
+    }
+}
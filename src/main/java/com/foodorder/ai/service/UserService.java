@@ -38,6 +38,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TrendingService trendingService;
+
     public User createUser(User user) {
         return userRepository.save(user);
     }
@@ -63,13 +66,20 @@ public class UserService {
             user.setDislikedFoods(updatedUser.getDislikedFoods());
             user.setBudgetMin(updatedUser.getBudgetMin());
             user.setBudgetMax(updatedUser.getBudgetMax());
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            trendingService.evictUser(userId);
+            return saved;
         }
         throw new RuntimeException("User not found: " + userId);
     }
 
     public void deleteUser(String userId) {
         userRepository.deleteById(userId);
+        trendingService.evictUser(userId);
+    }
+
+    public Optional<User> getUserByEmail(String email) {
+        return userRepository.findByEmail(email);
     }
 
     public void addPastOrder(String userId, String foodItemName) {
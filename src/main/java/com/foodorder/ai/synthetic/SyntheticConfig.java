@@ -0,0 +1,48 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.synthetic;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class SyntheticConfig {
+    private int users = 100_000;
+    private int restaurants = 200;
+    private int itemsPerRestaurant = 50;
+    private long interactions = 1_000_000;
+    // Share of interactions that are views; the rest are orders
+    private double viewFraction = 0.7;
+    // Zipf exponents for item and restaurant popularity and for user activity
+    private double itemSkew = 1.0;
+    private double userSkew = 0.6;
+    // Probability that an interaction goes to one of the user's favourite restaurants
+    private double loyalty = 0.7;
+    private int days = 90;
+    // Last day of history; null means yesterday
+    private LocalDate endDate;
+    private long seed = 42;
+}
@@ -0,0 +1,326 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.synthetic;
+
+import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+import com.foodorder.ai.repository.FoodItemRepository;
+import com.foodorder.ai.service.AffinityService;
+import com.foodorder.ai.service.CoOccurrenceService;
+import com.foodorder.ai.service.InteractionCountService;
+import com.foodorder.ai.service.MLRecommendationService;
+import com.foodorder.ai.service.TrendingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a synthetic workload at startup when the "synthetic" profile is
+ * active: the catalog goes into {@link FoodItemRepository} and the history
+ * is written with JDBC batch inserts, one shard of users per task.
+ *
+ * Each user's interactions are generated together, so their affinities are
+ * aggregated in memory and inserted alongside instead of being rebuilt from
+ * the interaction table, and their events go straight into the item
+ * co-occurrence index and the trending counters. A training run started
+ * at boot is stopped before loading, and training is restarted on the
+ * loaded data.
+ */
+@Component
+@Profile("synthetic")
+public class SyntheticDataLoader implements ApplicationRunner {
+
+    private static final String INSERT_INTERACTION =
+        "INSERT INTO user_item_interactions (user_id, food_item_id, interaction_type, rating, quantity, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_AFFINITY =
+        "INSERT INTO user_item_affinities (user_id, food_item_id, score, updated_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private FoodItemRepository foodItemRepository;
+
+    @Autowired
+    private AffinityService affinityService;
+
+    @Autowired
+    private MLRecommendationService mlRecommendationService;
+
+    @Autowired
+    private CoOccurrenceService coOccurrenceService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private InteractionCountService interactionCountService;
+
+    @Value("${synthetic.users:100000}")
+    private int users;
+
+    @Value("${synthetic.restaurants:200}")
+    private int restaurants;
+
+    @Value("${synthetic.items-per-restaurant:50}")
+    private int itemsPerRestaurant;
+
+    @Value("${synthetic.interactions:1000000}")
+    private long interactions;
+
+    @Value("${synthetic.view-fraction:0.7}")
+    private double viewFraction;
+
+    @Value("${synthetic.item-skew:1.0}")
+    private double itemSkew;
+
+    @Value("${synthetic.user-skew:0.6}")
+    private double userSkew;
+
+    @Value("${synthetic.loyalty:0.7}")
+    private double loyalty;
+
+    @Value("${synthetic.days:90}")
+    private int days;
+
+    @Value("${synthetic.end-date:}")
+    private String endDate;
+
+    @Value("${synthetic.seed:42}")
+    private long seed;
+
+    @Value("${synthetic.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${synthetic.threads:0}")
+    private int threads;
+
+    @Value("${synthetic.train-after-load:true}")
+    private boolean trainAfterLoad;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        // The startup run may still be backfilling affinities, which would collide with the inserts below
+        stopTraining();
+        long start = System.currentTimeMillis();
+        SyntheticWorkloadGenerator generator = new SyntheticWorkloadGenerator(config());
+
+        List<FoodItem> catalog = generator.generateCatalog();
+        long[] itemIds = new long[catalog.size()];
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = foodItemRepository.save(catalog.get(i)).getId();
+        }
+        System.out.println("Synthetic catalog: " + itemIds.length + " items from " + restaurants + " restaurants");
+
+        LocalDateTime now = LocalDateTime.now();
+        AtomicLong loaded = new AtomicLong();
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> shards = new ArrayList<>();
+            for (int shard = 0; shard < generator.getNumShards(); shard++) {
+                int current = shard;
+                shards.add(pool.submit(() -> {
+                    ShardWriter writer = new ShardWriter(itemIds, now);
+                    generator.generateShard(current, writer);
+                    writer.flush();
+                    loaded.addAndGet(writer.written);
+                }));
+            }
+            for (Future<?> shard : shards) {
+                shard.get();
+            }
+        } catch (ExecutionException e) {
+            System.err.println("Error loading synthetic workload: " + e.getCause().getMessage());
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.println("Synthetic workload loaded: " + loaded.get() + " interactions for " + users
+            + " users in " + elapsed + " ms (" + (loaded.get() * 1000 / elapsed) + " rows/s)");
+
+        if (trainAfterLoad) {
+            retrain();
+        }
+    }
+
+    private SyntheticConfig config() {
+        SyntheticConfig config = new SyntheticConfig();
+        config.setUsers(users);
+        config.setRestaurants(restaurants);
+        config.setItemsPerRestaurant(itemsPerRestaurant);
+        config.setInteractions(interactions);
+        config.setViewFraction(viewFraction);
+        config.setItemSkew(itemSkew);
+        config.setUserSkew(userSkew);
+        config.setLoyalty(loyalty);
+        config.setDays(days);
+        config.setEndDate(endDate.isEmpty() ? null : LocalDate.parse(endDate));
+        config.setSeed(seed);
+        return config;
+    }
+
+    // The startup run read the tables before the load; replace it with one over the synthetic data
+    private void retrain() throws InterruptedException {
+        stopTraining();
+        if (mlRecommendationService.requestTraining()) {
+            System.out.println("Training on the synthetic workload started");
+        }
+    }
+
+    private void stopTraining() throws InterruptedException {
+        mlRecommendationService.cancelTraining();
+        while (mlRecommendationService.isTrainingInProgress()) {
+            Thread.sleep(100);
+        }
+    }
+
+    /**
+     * Buffers one shard's rows in primitive arrays and writes them in
+     * batches, each in its own transaction. Affinities of the current user
+     * are summed until the user is done.
+     */
+    private class ShardWriter implements SyntheticWorkloadGenerator.InteractionSink {
+        private final long[] itemIds;
+        private final LocalDateTime now;
+        private final String[] userIds = new String[batchSize];
+        private final long[] foodItemIds = new long[batchSize];
+        private final InteractionType[] types = new InteractionType[batchSize];
+        private final int[] quantities = new int[batchSize];
+        private final Timestamp[] timestamps = new Timestamp[batchSize];
+        private int size;
+        private final Map<Long, Double> userAffinities = new HashMap<>();
+        private final List<Object[]> affinityRows = new ArrayList<>(batchSize);
+        private long written;
+
+        ShardWriter(long[] itemIds, LocalDateTime now) {
+            this.itemIds = itemIds;
+            this.now = now;
+        }
+
+        @Override
+        public void accept(String userId, int itemIndex, InteractionType type, int quantity, long timestamp) {
+            Timestamp at = new Timestamp(timestamp);
+            userIds[size] = userId;
+            foodItemIds[size] = itemIds[itemIndex];
+            types[size] = type;
+            quantities[size] = quantity;
+            timestamps[size] = at;
+            double weight = affinityService.decayedWeight(type, quantity, SyntheticWorkloadGenerator.rating(type, quantity),
+                at.toLocalDateTime(), now);
+            userAffinities.merge(foodItemIds[size], weight, Double::sum);
+            if (type == InteractionType.ORDER) {
+                coOccurrenceService.recordOrder(userId, foodItemIds[size]);
+            }
+            trendingService.recordInteraction(userId, foodItemIds[size], type, quantity, at.toLocalDateTime());
+            interactionCountService.recordInteraction(userId, type);
+            if (++size == batchSize) {
+                flushInteractions();
+            }
+        }
+
+        @Override
+        public void userDone(String userId) {
+            Timestamp updatedAt = Timestamp.valueOf(now);
+            userAffinities.forEach((itemId, score) -> {
+                if (score > 0) {
+                    affinityRows.add(new Object[]{userId, itemId, score, updatedAt});
+                }
+            });
+            userAffinities.clear();
+            if (affinityRows.size() >= batchSize) {
+                flushAffinities();
+            }
+        }
+
+        void flush() {
+            flushInteractions();
+            flushAffinities();
+        }
+
+        private void flushInteractions() {
+            if (size == 0) {
+                return;
+            }
+            int count = size;
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_INTERACTION, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, userIds[i]);
+                        ps.setLong(2, foodItemIds[i]);
+                        ps.setString(3, types[i].name());
+                        ps.setDouble(4, SyntheticWorkloadGenerator.rating(types[i], quantities[i]));
+                        ps.setInt(5, quantities[i]);
+                        ps.setTimestamp(6, timestamps[i]);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return count;
+                    }
+                }));
+            written += count;
+            size = 0;
+        }
+
+        private void flushAffinities() {
+            if (affinityRows.isEmpty()) {
+                return;
+            }
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_AFFINITY, affinityRows));
+            affinityRows.clear();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.synthetic;
+
+import com.foodorder.ai.model.FoodItem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Writes a synthetic workload to CSV files without starting the
+ * application, for loading into another database or replaying elsewhere:
+ *
+ * <pre>
+ * java -cp food-order-ai.jar -Dloader.main=com.foodorder.ai.synthetic.SyntheticWorkloadCli \
+ *     org.springframework.boot.loader.PropertiesLauncher --users=1000000 --interactions=100000000 --out=data
+ * </pre>
+ *
+ * Options use the names of the {@code synthetic.*} properties plus
+ * {@code --out} (default "synthetic-data") and {@code --first-item-id}
+ * (default 1). Produces food_items.csv and interactions.csv whose columns
+ * match the food item fields and the user_item_interactions table.
+ */
+public class SyntheticWorkloadCli {
+
+    public static void main(String[] args) throws IOException {
+        SyntheticConfig config = new SyntheticConfig();
+        Path out = Paths.get("synthetic-data");
+        long firstItemId = 1;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (name) {
+                case "users": config.setUsers(Integer.parseInt(value)); break;
+                case "restaurants": config.setRestaurants(Integer.parseInt(value)); break;
+                case "items-per-restaurant": config.setItemsPerRestaurant(Integer.parseInt(value)); break;
+                case "interactions": config.setInteractions(Long.parseLong(value)); break;
+                case "view-fraction": config.setViewFraction(Double.parseDouble(value)); break;
+                case "item-skew": config.setItemSkew(Double.parseDouble(value)); break;
+                case "user-skew": config.setUserSkew(Double.parseDouble(value)); break;
+                case "loyalty": config.setLoyalty(Double.parseDouble(value)); break;
+                case "days": config.setDays(Integer.parseInt(value)); break;
+                case "end-date": config.setEndDate(LocalDate.parse(value)); break;
+                case "seed": config.setSeed(Long.parseLong(value)); break;
+                case "out": out = Paths.get(value); break;
+                case "first-item-id": firstItemId = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        SyntheticWorkloadGenerator generator = new SyntheticWorkloadGenerator(config);
+        Files.createDirectories(out);
+        writeCatalog(generator.generateCatalog(), firstItemId, out.resolve("food_items.csv"));
+        long rows = writeInteractions(generator, firstItemId, out.resolve("interactions.csv"));
+        System.out.println("Wrote " + generator.getNumItems() + " items and " + rows + " interactions to "
+            + out.toAbsolutePath() + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static void writeCatalog(List<FoodItem> catalog, long firstItemId, Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("id,name,description,price,quantity,category,vegetarian,vegan,allergens\n");
+            for (int i = 0; i < catalog.size(); i++) {
+                FoodItem item = catalog.get(i);
+                writer.write((firstItemId + i) + "," + item.getName() + "," + item.getDescription() + ","
+                    + item.getPrice() + "," + item.getQuantity() + "," + item.getCategory() + ","
+                    + item.isVegetarian() + "," + item.isVegan() + "," + String.join(";", item.getAllergens()) + "\n");
+            }
+        }
+    }
+
+    private static long writeInteractions(SyntheticWorkloadGenerator generator, long firstItemId, Path file)
+            throws IOException {
+        long[] rows = new long[1];
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("user_id,food_item_id,interaction_type,rating,quantity,timestamp\n");
+            StringBuilder line = new StringBuilder(96);
+            for (int shard = 0; shard < generator.getNumShards(); shard++) {
+                generator.generateShard(shard, (userId, itemIndex, type, quantity, timestamp) -> {
+                    line.setLength(0);
+                    line.append(userId).append(',').append(firstItemId + itemIndex).append(',')
+                        .append(type.name()).append(',')
+                        .append(SyntheticWorkloadGenerator.rating(type, quantity))
+                        .append(',').append(quantity).append(',').append(new Timestamp(timestamp)).append('\n');
+                    try {
+                        writer.append(line);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                });
+            }
+        }
+        return rows[0];
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Akhil Chandra Bandam
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.foodorder.ai.synthetic;
+
+import com.foodorder.ai.model.FoodItem;
+import com.foodorder.ai.model.UserItemInteraction.InteractionType;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic workload: a catalog of restaurants with menus and
+ * an order/view history per user.
+ *
+ * Item and restaurant popularity and user activity follow Zipf laws. Each
+ * user has a few favourite restaurants, picked by popularity, that get most
+ * of their interactions; the rest go to globally popular dishes. Events fall
+ * on random days of the history window, mostly around lunch and dinner.
+ *
+ * Users are generated in fixed-size shards, each with its own random stream,
+ * so shards can be produced in parallel and the output does not depend on
+ * the number of threads. Item indexes are positions in the generated catalog.
+ */
+public class SyntheticWorkloadGenerator {
+    public static final int USERS_PER_SHARD = 10_000;
+
+    private static final int FAVOURITE_RESTAURANTS = 3;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private static final String[] CUISINES = {
+        "American", "Italian", "Mexican", "Indian", "Chinese", "Japanese", "Thai", "Mediterranean"
+    };
+    private static final String[][] DISHES = {
+        {"Burger", "Cheese Burger", "Chicken Wings", "Mac and Cheese", "Caesar Salad", "French Fries", "BBQ Ribs", "Club Sandwich"},
+        {"Margherita Pizza", "Pasta Primavera", "Lasagna", "Risotto", "Caprese Salad", "Carbonara", "Tiramisu", "Minestrone"},
+        {"Tacos", "Burrito", "Quesadilla", "Enchiladas", "Nachos", "Guacamole Bowl", "Churros", "Pozole"},
+        {"Butter Chicken", "Chana Masala", "Palak Paneer", "Biryani", "Dal Tadka", "Samosa", "Tandoori Chicken", "Naan"},
+        {"Kung Pao Chicken", "Mapo Tofu", "Fried Rice", "Chow Mein", "Spring Rolls", "Dumplings", "Sweet and Sour Pork", "Hot and Sour Soup"},
+        {"Salmon Sushi", "Ramen", "Tempura", "Teriyaki Chicken", "Miso Soup", "Veggie Maki", "Katsu Curry", "Edamame"},
+        {"Pad Thai", "Green Curry", "Tom Yum", "Massaman Curry", "Papaya Salad", "Satay", "Mango Sticky Rice", "Basil Fried Rice"},
+        {"Falafel Wrap", "Hummus Plate", "Greek Salad", "Chicken Shawarma", "Moussaka", "Tabbouleh", "Lamb Kofta", "Baklava"}
+    };
+    private static final String[] ALLERGENS = {"gluten", "dairy", "nuts", "soy", "eggs", "shellfish"};
+
+    public interface InteractionSink {
+        void accept(String userId, int itemIndex, InteractionType type, int quantity, long timestamp);
+
+        /** Called after the last interaction of each user. */
+        default void userDone(String userId) {
+        }
+    }
+
+    private final SyntheticConfig config;
+    private final int numItems;
+    private final ZipfSampler restaurantPopularity;
+    private final ZipfSampler menuPopularity;
+    private final ZipfSampler itemPopularity;
+    private final int[] itemByRank;
+    private final float[] expectedInteractions;
+    private final long firstDayStart;
+
+    public SyntheticWorkloadGenerator(SyntheticConfig config) {
+        if (config.getUsers() <= 0 || config.getRestaurants() <= 0 || config.getItemsPerRestaurant() <= 0
+                || config.getDays() <= 0) {
+            throw new IllegalArgumentException("Synthetic users, restaurants, items per restaurant and days must be positive");
+        }
+        this.config = config;
+        this.numItems = Math.multiplyExact(config.getRestaurants(), config.getItemsPerRestaurant());
+        this.restaurantPopularity = new ZipfSampler(config.getRestaurants(), config.getItemSkew());
+        this.menuPopularity = new ZipfSampler(config.getItemsPerRestaurant(), config.getItemSkew());
+        this.itemPopularity = new ZipfSampler(numItems, config.getItemSkew());
+
+        Random random = new Random(config.getSeed());
+        // Global popularity is spread across restaurants, and activity across user ids
+        this.itemByRank = permutation(numItems, random);
+        int[] userByRank = permutation(config.getUsers(), random);
+        double totalWeight = 0.0;
+        for (int rank = 0; rank < userByRank.length; rank++) {
+            totalWeight += ZipfSampler.weight(rank, config.getUserSkew());
+        }
+        this.expectedInteractions = new float[config.getUsers()];
+        for (int rank = 0; rank < userByRank.length; rank++) {
+            expectedInteractions[userByRank[rank]] =
+                (float) (config.getInteractions() * ZipfSampler.weight(rank, config.getUserSkew()) / totalWeight);
+        }
+
+        LocalDate endDate = config.getEndDate() != null ? config.getEndDate() : LocalDate.now().minusDays(1);
+        this.firstDayStart = endDate.minusDays(config.getDays() - 1L)
+            .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public int getNumItems() {
+        return numItems;
+    }
+
+    public int getNumShards() {
+        return (config.getUsers() + USERS_PER_SHARD - 1) / USERS_PER_SHARD;
+    }
+
+    public static String userId(int user) {
+        return "synth-user-" + user;
+    }
+
+    /**
+     * The rating column the tracking service records: the quantity for
+     * orders and 0.5 for views.
+     */
+    public static double rating(InteractionType type, int quantity) {
+        return type == InteractionType.ORDER ? quantity * 1.0 : 0.5;
+    }
+
+    /**
+     * The catalog, in item-index order and without ids.
+     */
+    public List<FoodItem> generateCatalog() {
+        Random random = new Random(config.getSeed() * 31 + 7);
+        List<FoodItem> catalog = new ArrayList<>(numItems);
+        for (int restaurant = 0; restaurant < config.getRestaurants(); restaurant++) {
+            int cuisine = random.nextInt(CUISINES.length);
+            String restaurantName = CUISINES[cuisine] + " Kitchen " + (restaurant + 1);
+            for (int dish = 0; dish < config.getItemsPerRestaurant(); dish++) {
+                String[] dishes = DISHES[cuisine];
+                String name = dishes[dish % dishes.length]
+                    + (dish >= dishes.length ? " No. " + (dish / dishes.length + 1) : "")
+                    + " (" + restaurantName + ")";
+                boolean vegetarian = random.nextDouble() < 0.35;
+                boolean vegan = vegetarian && random.nextDouble() < 0.4;
+                List<String> allergens = new ArrayList<>();
+                for (String allergen : ALLERGENS) {
+                    if (random.nextDouble() < 0.2) {
+                        allergens.add(allergen);
+                    }
+                }
+                double price = Math.floor(5 + 25 * random.nextDouble() * random.nextDouble()) + 0.99;
+                catalog.add(new FoodItem(null, name, dishes[dish % dishes.length] + " from " + restaurantName,
+                    price, 20 + random.nextInt(181), CUISINES[cuisine], vegetarian, vegan,
+                    allergens.toArray(new String[0])));
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Generates every interaction of the users in one shard, user by user.
+     */
+    public void generateShard(int shard, InteractionSink sink) {
+        Random random = new Random(config.getSeed() ^ (0x9E3779B97F4A7C15L * (shard + 1)));
+        int from = shard * USERS_PER_SHARD;
+        int to = Math.min(from + USERS_PER_SHARD, config.getUsers());
+        int[] favourites = new int[FAVOURITE_RESTAURANTS];
+
+        for (int user = from; user < to; user++) {
+            String userId = userId(user);
+            for (int i = 0; i < favourites.length; i++) {
+                favourites[i] = restaurantPopularity.sample(random);
+            }
+
+            double expected = expectedInteractions[user];
+            long count = (long) expected + (random.nextDouble() < expected - Math.floor(expected) ? 1 : 0);
+            for (long i = 0; i < count; i++) {
+                int item;
+                if (random.nextDouble() < config.getLoyalty()) {
+                    int restaurant = favourites[random.nextInt(favourites.length)];
+                    item = restaurant * config.getItemsPerRestaurant() + menuPopularity.sample(random);
+                } else {
+                    item = itemByRank[itemPopularity.sample(random)];
+                }
+
+                if (random.nextDouble() < config.getViewFraction()) {
+                    sink.accept(userId, item, InteractionType.VIEW, 1, timestamp(random));
+                } else {
+                    int quantity = 1;
+                    while (quantity < 5 && random.nextDouble() < 0.25) {
+                        quantity++;
+                    }
+                    sink.accept(userId, item, InteractionType.ORDER, quantity, timestamp(random));
+                }
+            }
+            sink.userDone(userId);
+        }
+    }
+
+    // A random day of the window; 40% around lunch, 45% around dinner, the rest spread over opening hours
+    private long timestamp(Random random) {
+        long dayStart = firstDayStart + random.nextInt(config.getDays()) * MILLIS_PER_DAY;
+        double mode = random.nextDouble();
+        double hour;
+        if (mode < 0.40) {
+            hour = 12.5 + 0.75 * random.nextGaussian();
+        } else if (mode < 0.85) {
+            hour = 19.5 + 1.0 * random.nextGaussian();
+        } else {
+            hour = 8 + 15 * random.nextDouble();
+        }
+        hour = Math.max(0.0, Math.min(hour, 23.99));
+        return dayStart + (long) (hour * MILLIS_PER_HOUR);
+    }
+
+    private static int[] permutation(int n, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}